@@ -0,0 +1,287 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A min-priority queue that changes its internal representation as it grows and shrinks.
+ *
+ * Small queues are kept in an array sorted in descending order, so the minimum is always the
+ * last element: remove() is O(1) and add() is a binary search plus one array copy. The copy
+ * is a single memmove, and the "adaptive" scenario in HeapBenchmark found the sorted array
+ * faster than a BinaryMinHeap for a balanced mix of adds and removes up to a few thousand
+ * elements, but slower for adds alone beyond a few dozen. Past a size limit the elements move
+ * into a BinaryMinHeap, and the limit follows the add/remove mix seen in each window of 64
+ * operations: 256 for a balanced mix, 32 while the queue is mostly filling and 1024 while it
+ * is mostly draining, where the array's O(1) removes pay off most.
+ *
+ * There is no tier beyond BinaryMinHeap: the "layout" scenario in HeapBenchmark found
+ * BlockedBinaryHeap slower even at eight million boxed elements.
+ *
+ * A queue moves back to a sorted array only once it falls below half the limit that
+ * took it up, and below half the current limit, so neither a size hovering around a limit
+ * nor a mix alternating between filling and draining migrates back and forth.
+ *
+ * @param <E> the type of elements in this queue
+ */
+public class AdaptivePriorityQueue<E extends Comparable<E>> implements PriorityQueue<E>
+{
+    /**
+     * The ways the queue can hold its elements.
+     */
+    public enum Representation
+    {
+        /** An array in descending order, with the minimum at the end. */
+        SORTED_ARRAY,
+
+        /** A BinaryMinHeap. */
+        BINARY_HEAP
+    }
+
+    private static final int DEFAULT = 8;
+    private static final int SORTED_LIMIT = 256;
+    private static final int DRAIN_HEAVY_SORTED_LIMIT = 1024;
+    private static final int FILL_HEAVY_SORTED_LIMIT = 32;
+    private static final int WINDOW = 64;
+
+    private final boolean _adaptive;
+    private final int _initialSortedLimit;
+    private E[] _sorted;
+    private PriorityQueue<E> _queue;
+    private Representation _representation = Representation.SORTED_ARRAY;
+    private int _size;
+    private int _sortedLimit;
+    private int _promotedAt;
+    private int _adds;
+    private int _removes;
+
+    /**
+     * Constructs a new AdaptivePriorityQueue.
+     */
+    public AdaptivePriorityQueue()
+    {
+        this(SORTED_LIMIT, true);
+    }
+
+    /**
+     * Constructs a new AdaptivePriorityQueue with a fixed sorted array limit,
+     * so benchmarks can time each representation at any size.
+     *
+     * @param sortedLimit the size above which a BinaryMinHeap is used
+     * @param adaptive whether to adjust sortedLimit from the add/remove mix
+     */
+    AdaptivePriorityQueue(int sortedLimit, boolean adaptive)
+    {
+        _initialSortedLimit = sortedLimit;
+        _sortedLimit = sortedLimit;
+        _adaptive = adaptive;
+        _sorted = (E[]) new Comparable[DEFAULT];
+    }
+
+    /**
+     * Adds the specified element to the queue in priority order.
+     *
+     * @param element the element to add to the queue
+     * @throws IllegalArgumentException if the element is null
+     */
+    public void add(E element)
+    {
+        if (element == null)
+        {
+            throw new IllegalArgumentException("Cannot add null to the AdaptivePriorityQueue");
+        }
+        if (_representation == Representation.SORTED_ARRAY)
+        {
+            _insertSorted(element);
+        }
+        else
+        {
+            _queue.add(element);
+        }
+        _size++;
+        _adds++;
+        _adapt();
+    }
+
+    /**
+     * Retrieves, without removing, the smallest element of the queue.
+     *
+     * @return the smallest element
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public E get()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        return _representation == Representation.SORTED_ARRAY ? _sorted[_size - 1] : _queue.get();
+    }
+
+    /**
+     * Retrieves and removes the smallest element of the queue.
+     *
+     * @return the smallest element
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public E remove()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        E element;
+        if (_representation == Representation.SORTED_ARRAY)
+        {
+            element = _sorted[_size - 1];
+            _sorted[_size - 1] = null;
+        }
+        else
+        {
+            element = _queue.remove();
+        }
+        _size--;
+        _removes++;
+        _adapt();
+        return element;
+    }
+
+    /**
+     * Clears the queue and returns it to a sorted array, forgetting the add/remove mix
+     * seen so far so that the queue adapts as if newly constructed.
+     */
+    public void clear()
+    {
+        _sorted = (E[]) new Comparable[DEFAULT];
+        _queue = null;
+        _representation = Representation.SORTED_ARRAY;
+        _size = 0;
+        _sortedLimit = _initialSortedLimit;
+        _promotedAt = 0;
+        _adds = 0;
+        _removes = 0;
+    }
+
+    /**
+     * Returns the number of elements in the queue.
+     *
+     * @return the number of elements
+     */
+    public int size()
+    {
+        return _size;
+    }
+
+    /**
+     * Returns _size == 0
+     * @return returns _size == 0
+     */
+    public boolean isEmpty()
+    {
+        return _size == 0;
+    }
+
+    /**
+     * Returns how the queue currently holds its elements.
+     *
+     * @return the current representation
+     */
+    public Representation representation()
+    {
+        return _representation;
+    }
+
+    /**
+     * Inserts into the descending array after every element greater than the new one.
+     *
+     * @param element the element to insert
+     */
+    private void _insertSorted(E element)
+    {
+        if (_size == _sorted.length)
+        {
+            _sorted = Arrays.copyOf(_sorted, _size * 2);
+        }
+        int low = 0;
+        int high = _size;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (_sorted[middle].compareTo(element) > 0)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        System.arraycopy(_sorted, low, _sorted, low + 1, _size - low);
+        _sorted[low] = element;
+    }
+
+    /**
+     * Updates the sorted array limit once per window of operations from the add/remove mix,
+     * then migrates if the size has crossed a limit.
+     */
+    private void _adapt()
+    {
+        if (_adds + _removes == WINDOW)
+        {
+            if (_adaptive)
+            {
+                _sortedLimit = _removes >= 3 * _adds ? DRAIN_HEAVY_SORTED_LIMIT
+                        : _adds >= 3 * _removes ? FILL_HEAVY_SORTED_LIMIT
+                        : SORTED_LIMIT;
+            }
+            _adds = 0;
+            _removes = 0;
+        }
+        switch (_representation)
+        {
+            case SORTED_ARRAY:
+                if (_size > _sortedLimit)
+                {
+                    _toHeap();
+                }
+                break;
+            case BINARY_HEAP:
+                // Measured against the limit that promoted the queue, not just this window's,
+                // so a mix that flips between filling and draining cannot flip the representation.
+                if (_size < Math.min(_promotedAt, _sortedLimit) / 2)
+                {
+                    _toSorted();
+                }
+                break;
+        }
+    }
+
+    /**
+     * Moves the elements of the sorted array into a BinaryMinHeap. They leave the array
+     * in ascending order, so each add into the heap stops after one comparison.
+     */
+    private void _toHeap()
+    {
+        BinaryMinHeap<E> heap = new BinaryMinHeap<>(Math.max(DEFAULT, _size * 2));
+        for (int i = _size - 1; i >= 0; i--)
+        {
+            heap.add(_sorted[i]);
+        }
+        _sorted = null;
+        _queue = heap;
+        _representation = Representation.BINARY_HEAP;
+        _promotedAt = _sortedLimit;
+    }
+
+    /**
+     * Drains the BinaryMinHeap into a descending array.
+     */
+    private void _toSorted()
+    {
+        _sorted = (E[]) new Comparable[Math.max(DEFAULT, _sortedLimit)];
+        for (int i = _size - 1; i >= 0; i--)
+        {
+            _sorted[i] = _queue.remove();
+        }
+        _queue = null;
+        _representation = Representation.SORTED_ARRAY;
+    }
+}
@@ -0,0 +1,139 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class AdaptivePriorityQueueTest {
+
+    private AdaptivePriorityQueue<Integer> queue;
+
+    @Before
+    public void setUp() {
+        queue = new AdaptivePriorityQueue<>();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_NullElement_ShouldThrowIllegalArgumentException() {
+        queue.add(null);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void remove_OnEmpty_ShouldThrowNoSuchElementException() {
+        queue.remove();
+    }
+
+    @Test
+    public void add_FewElements_ShouldStaySortedArray() {
+        queue.add(3);
+        queue.add(1);
+        queue.add(2);
+        assertEquals(AdaptivePriorityQueue.Representation.SORTED_ARRAY, queue.representation());
+        assertEquals(Integer.valueOf(1), queue.get());
+        assertEquals(Integer.valueOf(1), queue.remove());
+        assertEquals(Integer.valueOf(2), queue.remove());
+        assertEquals(Integer.valueOf(3), queue.remove());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void add_ManyElements_ShouldMigrateToHeapAndStayOrdered() {
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            queue.add(random.nextInt(100));
+        }
+        assertEquals(AdaptivePriorityQueue.Representation.BINARY_HEAP, queue.representation());
+        int previous = Integer.MIN_VALUE;
+        while (!queue.isEmpty()) {
+            int next = queue.remove();
+            assertTrue("Elements should come out in ascending order", next >= previous);
+            previous = next;
+        }
+        assertEquals(AdaptivePriorityQueue.Representation.SORTED_ARRAY, queue.representation());
+    }
+
+    @Test
+    public void remove_AfterGrowth_ShouldMigrateBackOnlyBelowHalfTheLimit() {
+        for (int i = 0; i < 300; i++) {
+            queue.add(i);
+        }
+        assertEquals(AdaptivePriorityQueue.Representation.BINARY_HEAP, queue.representation());
+        for (int i = 0; i < 60; i++) {
+            queue.remove();
+            queue.add(1000 + i);
+        }
+        assertEquals("A balanced mix around the limit should not migrate back",
+                AdaptivePriorityQueue.Representation.BINARY_HEAP, queue.representation());
+    }
+
+    @Test
+    public void alternatingFillAndDrainWindows_ShouldNotFlipRepresentation() {
+        for (int i = 0; i < 250; i++) {
+            queue.add(i);
+        }
+        AdaptivePriorityQueue.Representation previous = queue.representation();
+        int switches = 0;
+        for (int window = 0; window < 100; window++) {
+            for (int i = 0; i < 64; i++) {
+                if (window % 2 == 0) {
+                    queue.add(i);
+                } else {
+                    queue.remove();
+                }
+                if (queue.representation() != previous) {
+                    previous = queue.representation();
+                    switches++;
+                }
+            }
+        }
+        assertTrue("Sizes between 250 and 314 should settle on one representation, got " + switches + " switches",
+                switches <= 1);
+    }
+
+    @Test
+    public void randomOperations_ShouldMatchBinaryMinHeap() {
+        BinaryMinHeap<Integer> reference = new BinaryMinHeap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 200_000; i++) {
+            // Drift between filling and draining so every representation and limit is exercised.
+            boolean fill = (i / 5000) % 2 == 0;
+            if (reference.isEmpty() || random.nextInt(4) < (fill ? 3 : 1)) {
+                int value = random.nextInt(1000);
+                queue.add(value);
+                reference.add(value);
+            } else {
+                assertEquals(reference.remove(), queue.remove());
+            }
+            assertEquals(reference.size(), queue.size());
+        }
+    }
+
+    @Test
+    public void clear_ShouldEmptyAndReturnToSortedArray() {
+        for (int i = 0; i < 1000; i++) {
+            queue.add(i);
+        }
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertEquals(AdaptivePriorityQueue.Representation.SORTED_ARRAY, queue.representation());
+        queue.add(5);
+        assertEquals(Integer.valueOf(5), queue.get());
+    }
+
+    @Test
+    public void clear_AfterFillHeavyWindow_ShouldResetAdaptiveState() {
+        // 100 adds lower the limit to 32 after the first window and leave 36 adds counted.
+        for (int i = 0; i < 100; i++) {
+            queue.add(i);
+        }
+        assertEquals(AdaptivePriorityQueue.Representation.BINARY_HEAP, queue.representation());
+        queue.clear();
+        // A fresh queue stays a sorted array for 40 adds: no window completes and the limit is 256.
+        for (int i = 0; i < 40; i++) {
+            queue.add(i);
+        }
+        assertEquals("clear() should reset the limit and the window counts",
+                AdaptivePriorityQueue.Representation.SORTED_ARRAY, queue.representation());
+    }
+}
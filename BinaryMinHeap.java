@@ -1,5 +1,14 @@
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This binary min-heap implementation of a priority queue ensures that
@@ -9,11 +18,36 @@ import java.util.NoSuchElementException;
  *
  * @param <E> the type of elements in this heap, which must be Comparable
  */
-public class BinaryMinHeap<E extends Comparable<E>> implements Iterable<E>
+public class BinaryMinHeap<E extends Comparable<E>> implements PriorityQueue<E>, Iterable<E>
 {
+    /**
+     * How remove() restores the heap after moving the last element to the root.
+     */
+    public enum RemovalStrategy
+    {
+        /**
+         * Classic sift-down: at each level compare the two children, then compare the
+         * sinking element with the smaller one. About 2 log n comparisons per remove().
+         */
+        TOP_DOWN,
+
+        /**
+         * Floyd's bottom-up sift-down: descend to a leaf along the smaller children without
+         * looking at the sinking element, then sift it up from there. Since the last element
+         * nearly always belongs near the bottom, this takes about log n + O(1) comparisons,
+         * which pays off when compareTo is expensive.
+         */
+        BOTTOM_UP
+    }
+
     private E[] _heap;
     private int _size;
+    private int _modCount;
+    private RemovalStrategy _removalStrategy = RemovalStrategy.TOP_DOWN;
+    private final HeapMetrics _metrics;
     private static final int DEFAULT = 10;
+    private static final int PARALLEL_HEIGHT = 14;
+    private static final int SEQUENTIAL_SORT = 1 << 13;
 
     /**
      * Constructs a new BinaryMinHeap with the specified initial capacity.
@@ -22,13 +56,28 @@ public class BinaryMinHeap<E extends Comparable<E>> implements Iterable<E>
      * @throws IllegalArgumentException if the initial capacity is less than 1
      */
     public BinaryMinHeap(int initialCapacity)
+    {
+        this(initialCapacity, null);
+    }
+
+    /**
+     * Constructs a new instrumented BinaryMinHeap that records comparisons, sift depths,
+     * resizes and operation latency into the given metrics.
+     * Passing null gives an uninstrumented heap, the same as BinaryMinHeap(int).
+     *
+     * @param initialCapacity the initial capacity of the heap
+     * @param metrics the metrics to record into, or null to disable instrumentation
+     * @throws IllegalArgumentException if the initial capacity is less than 1
+     */
+    public BinaryMinHeap(int initialCapacity, HeapMetrics metrics)
     {
         if (initialCapacity < 1)
         {
             throw new IllegalArgumentException();
         }
-        _heap = (E[]) new Comparable[DEFAULT];
+        _heap = (E[]) new Comparable[initialCapacity];
         _size = 0;
+        _metrics = metrics;
     }
 
     /**
@@ -39,6 +88,55 @@ public class BinaryMinHeap<E extends Comparable<E>> implements Iterable<E>
         this(DEFAULT);
     }
 
+    /**
+     * Builds a heap from the given elements in O(n) using Floyd's bottom-up construction,
+     * heapifying independent subtrees in parallel on the common ForkJoinPool.
+     * The array is copied and is not modified.
+     *
+     * @param elements the elements to put in the heap
+     * @param <E> the type of elements in the heap
+     * @return a new heap containing the elements
+     * @throws IllegalArgumentException if elements is null or contains null
+     */
+    public static <E extends Comparable<E>> BinaryMinHeap<E> heapify(E[] elements)
+    {
+        return heapify(elements, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds a heap from the given elements in O(n) using Floyd's bottom-up construction,
+     * heapifying independent subtrees in parallel on the given pool.
+     * The array is copied and is not modified.
+     *
+     * @param elements the elements to put in the heap
+     * @param pool the pool to run the construction in
+     * @param <E> the type of elements in the heap
+     * @return a new heap containing the elements
+     * @throws IllegalArgumentException if elements is null or contains null
+     */
+    public static <E extends Comparable<E>> BinaryMinHeap<E> heapify(E[] elements, ForkJoinPool pool)
+    {
+        if (elements == null)
+        {
+            throw new IllegalArgumentException();
+        }
+        BinaryMinHeap<E> heap = new BinaryMinHeap<>();
+        heap._heap = (E[]) Arrays.copyOf(elements, Math.max(elements.length, DEFAULT), Comparable[].class);
+        for (int i = 0; i < elements.length; i++)
+        {
+            if (elements[i] == null)
+            {
+                throw new IllegalArgumentException("Cannot add null to the BinaryMinHeap");
+            }
+        }
+        heap._size = elements.length;
+        if (heap._size > 1)
+        {
+            pool.invoke(heap.new HeapifyTask(0));
+        }
+        return heap;
+    }
+
     /**
      * Adds the specified element to the heap in priority order.
      * The element must not be null and must be comparable to other elements in the heap.
@@ -51,12 +149,19 @@ public class BinaryMinHeap<E extends Comparable<E>> implements Iterable<E>
         if (element == null) {
             throw new IllegalArgumentException("Cannot add null to the BinaryMinHeap");
         }
+        if (_metrics != null) {
+            _metrics.beginOperation();
+        }
         if (_size == _heap.length) {
             _grow();
         }
         _heap[_size] = element; // Insert the element at the end of the heap
         _siftUp(_size);
         _size++;
+        _modCount++;
+        if (_metrics != null) {
+            _metrics.endAdd(_size);
+        }
     }
 
 
@@ -89,10 +194,69 @@ public class BinaryMinHeap<E extends Comparable<E>> implements Iterable<E>
         {
             throw new NoSuchElementException();
         }
+        if (_metrics != null)
+        {
+            _metrics.beginOperation();
+        }
         E minElement = _heap[0];
         _heap[0] = _heap[--_size];
         _heap[_size] = null;
-        _siftDown(0);
+        if (_removalStrategy == RemovalStrategy.BOTTOM_UP)
+        {
+            _siftDownBottomUp(0);
+        }
+        else
+        {
+            _siftDown(0);
+        }
+        _modCount++;
+        if (_metrics != null)
+        {
+            _metrics.endRemove(_size);
+        }
+        return minElement;
+    }
+
+    /**
+     * Retrieves and removes the minimum element of the heap and adds the specified element
+     * in its place. This is equivalent to remove() followed by add(element), but takes a
+     * single sift down, which makes it the cheap way to keep a bounded heap of the k largest.
+     * An instrumented heap records it as a remove.
+     *
+     * @param element the element to add to the heap
+     * @return the minimum element before the call
+     * @throws IllegalArgumentException if the element is null
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public E replace(E element)
+    {
+        if (element == null)
+        {
+            throw new IllegalArgumentException("Cannot add null to the BinaryMinHeap");
+        }
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        if (_metrics != null)
+        {
+            _metrics.beginOperation();
+        }
+        E minElement = _heap[0];
+        _heap[0] = element;
+        if (_removalStrategy == RemovalStrategy.BOTTOM_UP)
+        {
+            _siftDownBottomUp(0);
+        }
+        else
+        {
+            _siftDown(0);
+        }
+        _modCount++;
+        if (_metrics != null)
+        {
+            _metrics.endRemove(_size);
+        }
         return minElement;
     }
 
@@ -105,6 +269,7 @@ public class BinaryMinHeap<E extends Comparable<E>> implements Iterable<E>
         // much cleaner than using a loop.
         Arrays.fill(_heap, null);
         _size = 0;
+        _modCount++;
     }
 
     /**
@@ -125,6 +290,55 @@ public class BinaryMinHeap<E extends Comparable<E>> implements Iterable<E>
         return _size == 0;
     }
 
+    /**
+     * Returns the strategy remove() uses to restore the heap.
+     *
+     * @return the current removal strategy
+     */
+    public RemovalStrategy removalStrategy()
+    {
+        return _removalStrategy;
+    }
+
+    /**
+     * Sets the strategy remove() uses to restore the heap. This can be changed at any time.
+     *
+     * @param strategy the removal strategy to use
+     * @throws IllegalArgumentException if strategy is null
+     */
+    public void setRemovalStrategy(RemovalStrategy strategy)
+    {
+        if (strategy == null)
+        {
+            throw new IllegalArgumentException();
+        }
+        _removalStrategy = strategy;
+    }
+
+    /**
+     * Returns the metrics this heap records into.
+     *
+     * @return the metrics passed to the constructor, or null if the heap is not instrumented
+     */
+    public HeapMetrics metrics()
+    {
+        return _metrics;
+    }
+
+    /**
+     * Adapts this heap to java.lang.Iterable for for-each loops and library code.
+     * Unlike iterator(), which copies and drains the whole heap up front, the result walks
+     * the heap lazily in ascending order through stream(), so stopping after the first few
+     * elements costs only O(k log k). Iteration throws ConcurrentModificationException
+     * if the heap is modified while it is in progress.
+     *
+     * @return a java.lang.Iterable over the elements in ascending order
+     */
+    public java.lang.Iterable<E> asJavaIterable()
+    {
+        return () -> stream().iterator();
+    }
+
     /**
      * Creates and returns an iterator for the binary min heap.
      * The iterator will iterate over the heap so that each call to next()
@@ -137,6 +351,86 @@ public class BinaryMinHeap<E extends Comparable<E>> implements Iterable<E>
         return new BinaryMinHeapIterator();
     }
 
+    /**
+     * Creates a spliterator over the backing array in heap order, not priority order.
+     * It reports SIZED and SUBSIZED and splits the array evenly, so it is suited to parallel
+     * streams that do not care about order. The heap must not be modified during traversal.
+     *
+     * @return an unordered spliterator over the elements of the heap
+     */
+    public Spliterator<E> spliterator()
+    {
+        return Spliterators.spliterator(_heap, 0, _size, Spliterator.NONNULL);
+    }
+
+    /**
+     * Returns a parallel stream over the elements of the heap in no particular order.
+     *
+     * @return a parallel, unordered stream over the elements of the heap
+     * @see #spliterator()
+     */
+    public Stream<E> parallelStream()
+    {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Returns a sequential stream over the elements of the heap in ascending order.
+     * Elements are produced lazily without copying or modifying the heap: a small frontier
+     * of candidate indices is kept, so taking k elements costs O(k log k).
+     * Modifying the heap while the stream is being consumed throws ConcurrentModificationException.
+     *
+     * @return an ordered stream over the elements of the heap
+     */
+    public Stream<E> stream()
+    {
+        return StreamSupport.stream(new OrderedSpliterator(), false);
+    }
+
+    /**
+     * Returns the elements of the heap in ascending order, merge sorting a copy of the backing
+     * array in parallel on the common ForkJoinPool. The heap itself is not modified.
+     *
+     * @return a new array containing every element in ascending order
+     */
+    public Object[] toSortedArray()
+    {
+        return toSortedArray(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns the elements of the heap in ascending order, merge sorting a copy of the backing
+     * array in parallel on the given pool. The heap itself is not modified.
+     *
+     * @param pool the pool to sort in
+     * @return a new array containing every element in ascending order
+     */
+    public Object[] toSortedArray(ForkJoinPool pool)
+    {
+        return _sortedCopy(pool);
+    }
+
+    /**
+     * Returns a stream of the heap's elements in ascending order, backed by a copy of the
+     * heap sorted in parallel on the common ForkJoinPool. The heap itself is not modified.
+     *
+     * @return a sequential stream of every element in ascending order
+     */
+    public Stream<E> sortedStream()
+    {
+        return Arrays.stream(_sortedCopy(ForkJoinPool.commonPool()));
+    }
+
+    private E[] _sortedCopy(ForkJoinPool pool)
+    {
+        E[] copy = Arrays.copyOf(_heap, _size);
+        if (_size > 1)
+        {
+            pool.invoke(new SortTask<>(copy, (E[]) new Comparable[_size], 0, _size));
+        }
+        return copy;
+    }
+
     /**
      * Restores the heap property by moving the element at the specified index up
      * the heap until it is greater than or equal to its parent or is at the root of the heap.
@@ -149,18 +443,23 @@ public class BinaryMinHeap<E extends Comparable<E>> implements Iterable<E>
     void _siftUp(int index)
     {
         E element = _heap[index];
+        int depth = 0;
         while (index > 0) {
             int parentIndex = (index - 1) / 2;
             E parent = _heap[parentIndex];
-            if (element.compareTo(parent) >= 0)
+            if (_compare(element, parent) >= 0)
             {
-                _heap[index] = element;
-                return;
+                break;
             }
             _heap[index] = parent;
             index = parentIndex;
+            depth++;
         }
         _heap[index] = element;
+        if (_metrics != null)
+        {
+            _metrics.siftUp(depth);
+        }
     }
 
     /**
@@ -176,22 +475,85 @@ public class BinaryMinHeap<E extends Comparable<E>> implements Iterable<E>
     {
         E element = _heap[index];
         int childIndex = 2 * index + 1;
+        int depth = 0;
         while (childIndex < _size) {
             int smallestChild = childIndex;
-            if (childIndex + 1 < _size && _heap[childIndex + 1].compareTo(_heap[childIndex]) < 0)
+            if (childIndex + 1 < _size && _compare(_heap[childIndex + 1], _heap[childIndex]) < 0)
             {
                 smallestChild = childIndex + 1;
             }
-            if (element.compareTo(_heap[smallestChild]) <= 0)
+            if (_compare(element, _heap[smallestChild]) <= 0)
             {
-                _heap[index] = element;
-                return;
+                break;
             }
             _heap[index] = _heap[smallestChild];
             index = smallestChild;
             childIndex = 2 * index + 1;
+            depth++;
         }
         _heap[index] = element;
+        if (_metrics != null)
+        {
+            _metrics.siftDown(depth);
+        }
+    }
+
+    /**
+     * Restores the heap property below the specified index using Floyd's bottom-up method.
+     *
+     * The hole left at the index is first pushed down to a leaf by always promoting the
+     * smaller child, which costs one comparison per level. The element is then placed in
+     * the hole and moved back up until its parent is not greater, stopping at the index.
+     *
+     * @param index the index of the element to sift down
+     */
+    void _siftDownBottomUp(int index)
+    {
+        E element = _heap[index];
+        int start = index;
+        int childIndex = 2 * index + 1;
+        int depth = 0;
+        while (childIndex < _size) {
+            if (childIndex + 1 < _size && _compare(_heap[childIndex + 1], _heap[childIndex]) < 0)
+            {
+                childIndex++;
+            }
+            _heap[index] = _heap[childIndex];
+            index = childIndex;
+            childIndex = 2 * index + 1;
+            depth++;
+        }
+        while (index > start) {
+            int parentIndex = (index - 1) / 2;
+            if (_compare(element, _heap[parentIndex]) >= 0)
+            {
+                break;
+            }
+            _heap[index] = _heap[parentIndex];
+            index = parentIndex;
+            depth--;
+        }
+        _heap[index] = element;
+        if (_metrics != null)
+        {
+            _metrics.siftDown(depth);
+        }
+    }
+
+    /**
+     * Compares two elements, counting the comparison when the heap is instrumented.
+     *
+     * @param a the first element
+     * @param b the second element
+     * @return the result of a.compareTo(b)
+     */
+    private int _compare(E a, E b)
+    {
+        if (_metrics != null)
+        {
+            _metrics.comparison();
+        }
+        return a.compareTo(b);
     }
 
     /**
@@ -199,11 +561,238 @@ public class BinaryMinHeap<E extends Comparable<E>> implements Iterable<E>
      * then use Array copy to copy old heap into new heap
      */
     private void _grow() {
-        _heap = Arrays.copyOf(_heap, _heap.length * 2);
+        int oldCapacity = _heap.length;
+        _heap = Arrays.copyOf(_heap, oldCapacity * 2);
+        if (_metrics != null) {
+            _metrics.resize(oldCapacity, _heap.length, _size);
+        }
     }
 
 
 
+    /**
+     * Sorts a range of an array by parallel merge sort, forking its halves in the pool it
+     * runs in, so the parallelism is that of the pool passed to toSortedArray().
+     * Ranges of up to SEQUENTIAL_SORT elements are sorted with Arrays.sort.
+     *
+     * @param <E> the type of elements to sort
+     */
+    private static final class SortTask<E extends Comparable<E>> extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final E[] _elements;
+        private final E[] _buffer;
+        private final int _from;
+        private final int _to;
+
+        SortTask(E[] elements, E[] buffer, int from, int to)
+        {
+            _elements = elements;
+            _buffer = buffer;
+            _from = from;
+            _to = to;
+        }
+
+        protected void compute()
+        {
+            if (_to - _from <= SEQUENTIAL_SORT)
+            {
+                Arrays.sort(_elements, _from, _to);
+                return;
+            }
+            int middle = (_from + _to) >>> 1;
+            invokeAll(new SortTask<>(_elements, _buffer, _from, middle),
+                    new SortTask<>(_elements, _buffer, middle, _to));
+            if (_elements[middle - 1].compareTo(_elements[middle]) <= 0)
+            {
+                return;
+            }
+            System.arraycopy(_elements, _from, _buffer, _from, _to - _from);
+            int left = _from;
+            int right = middle;
+            for (int i = _from; i < _to; i++)
+            {
+                if (right >= _to || (left < middle && _buffer[left].compareTo(_buffer[right]) <= 0))
+                {
+                    _elements[i] = _buffer[left++];
+                }
+                else
+                {
+                    _elements[i] = _buffer[right++];
+                }
+            }
+        }
+    }
+
+    /**
+     * HeapifyTask heapifies the subtree rooted at an index: both child subtrees first,
+     * forked in parallel while they are tall enough to be worth it, then _siftDown on the root.
+     * Subtrees are disjoint, so the tasks never write to the same slots.
+     */
+    private class HeapifyTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int _index;
+
+        HeapifyTask(int index)
+        {
+            _index = index;
+        }
+
+        protected void compute()
+        {
+            int left = 2 * _index + 1;
+            if (left >= _size)
+            {
+                return;
+            }
+            if (_height(_index) > PARALLEL_HEIGHT)
+            {
+                invokeAll(new HeapifyTask(left), new HeapifyTask(left + 1));
+            }
+            else
+            {
+                _heapify(left);
+                _heapify(left + 1);
+            }
+            _siftDown(_index);
+        }
+
+        private void _heapify(int index)
+        {
+            int left = 2 * index + 1;
+            if (left >= _size)
+            {
+                return;
+            }
+            _heapify(left);
+            _heapify(left + 1);
+            _siftDown(index);
+        }
+
+        private int _height(int index)
+        {
+            return (31 - Integer.numberOfLeadingZeros(_size)) - (31 - Integer.numberOfLeadingZeros(index + 1));
+        }
+    }
+
+    /**
+     * OrderedSpliterator walks the heap in ascending order without modifying it.
+     * It keeps its own small min-heap of indices into _heap, starting from the root;
+     * each step removes the smallest index and adds that node's children, which are
+     * the only new candidates for the next smallest element.
+     */
+    private class OrderedSpliterator implements Spliterator<E>
+    {
+        private final int _expectedModCount = _modCount;
+        private int[] _frontier = new int[DEFAULT];
+        private int _frontierSize;
+        private int _remaining = _size;
+
+        OrderedSpliterator()
+        {
+            if (_size > 0)
+            {
+                _frontier[_frontierSize++] = 0;
+            }
+        }
+
+        public boolean tryAdvance(Consumer<? super E> action)
+        {
+            if (_modCount != _expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+            if (_frontierSize == 0)
+            {
+                return false;
+            }
+            int index = _frontier[0];
+            _frontier[0] = _frontier[--_frontierSize];
+            _siftDownIndex(0);
+            int child = 2 * index + 1;
+            if (child < _size)
+            {
+                _addIndex(child);
+            }
+            if (child + 1 < _size)
+            {
+                _addIndex(child + 1);
+            }
+            _remaining--;
+            action.accept(_heap[index]);
+            return true;
+        }
+
+        public Spliterator<E> trySplit()
+        {
+            return null;
+        }
+
+        public long estimateSize()
+        {
+            return _remaining;
+        }
+
+        public int characteristics()
+        {
+            return ORDERED | SORTED | SIZED | NONNULL;
+        }
+
+        public Comparator<? super E> getComparator()
+        {
+            return null;
+        }
+
+        private void _addIndex(int index)
+        {
+            if (_frontierSize == _frontier.length)
+            {
+                _frontier = Arrays.copyOf(_frontier, _frontierSize * 2);
+            }
+            int position = _frontierSize++;
+            while (position > 0)
+            {
+                int parent = (position - 1) / 2;
+                if (_heap[index].compareTo(_heap[_frontier[parent]]) >= 0)
+                {
+                    break;
+                }
+                _frontier[position] = _frontier[parent];
+                position = parent;
+            }
+            _frontier[position] = index;
+        }
+
+        private void _siftDownIndex(int position)
+        {
+            if (_frontierSize == 0)
+            {
+                return;
+            }
+            int index = _frontier[position];
+            int child = 2 * position + 1;
+            while (child < _frontierSize)
+            {
+                if (child + 1 < _frontierSize
+                        && _heap[_frontier[child + 1]].compareTo(_heap[_frontier[child]]) < 0)
+                {
+                    child++;
+                }
+                if (_heap[index].compareTo(_heap[_frontier[child]]) <= 0)
+                {
+                    break;
+                }
+                _frontier[position] = _frontier[child];
+                position = child;
+                child = 2 * position + 1;
+            }
+            _frontier[position] = index;
+        }
+    }
+
     /**
      * BinaryMinHeapIterator is a private class within BinaryMinHeap that is used to
      * Iterate through each element while using hasNext and next methods.
@@ -783,6 +783,301 @@ public class BinaryMinHeapTest {
         }
     }
 
+    @Test
+    public void metrics_UninstrumentedHeap_ShouldReturnNull() {
+        assertNull("A heap built without metrics should not be instrumented", heap.metrics());
+    }
+
+    @Test
+    public void metrics_InstrumentedHeap_ShouldRecordResizesAndHighWaterMark() {
+        HeapMetrics metrics = new HeapMetrics();
+        BinaryMinHeap<Integer> instrumented = new BinaryMinHeap<>(10, metrics);
+        for (int i = 15; i > 0; i--) {
+            instrumented.add(i);
+        }
+        instrumented.remove();
+
+        HeapMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals("Growing past 10 elements should resize once", 1, snapshot.resizeCount());
+        assertEquals("High-water mark should be the largest size reached", 15, snapshot.highWaterMark());
+        assertEquals("Every add should be recorded", 15, snapshot.addComparisons().count());
+        assertEquals("Every remove should be recorded", 1, snapshot.removeLatency().count());
+        assertTrue("Descending adds should sift up at least one level", snapshot.siftUpDepth().max() >= 1);
+    }
+
+    @Test
+    public void constructor_InitialCapacity_ShouldHoldThatManyWithoutResizing() {
+        HeapMetrics metrics = new HeapMetrics();
+        BinaryMinHeap<Integer> instrumented = new BinaryMinHeap<>(100, metrics);
+        for (int i = 100; i > 0; i--) {
+            instrumented.add(i);
+        }
+        assertEquals("Filling to the initial capacity should not resize", 0, metrics.snapshot().resizeCount());
+        instrumented.add(0);
+        assertEquals("Going past it should resize once", 1, metrics.snapshot().resizeCount());
+    }
+
+    @Test
+    public void replace_InstrumentedHeap_ShouldRecordAsRemove() {
+        HeapMetrics metrics = new HeapMetrics();
+        BinaryMinHeap<Integer> instrumented = new BinaryMinHeap<>(10, metrics);
+        for (int i = 1; i <= 7; i++) {
+            instrumented.add(i);
+        }
+        instrumented.replace(100);
+
+        HeapMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals("replace() should be recorded like a remove", 1, snapshot.removeLatency().count());
+        assertTrue("The sift down should be counted", snapshot.removeComparisons().max() >= 2);
+    }
+
+    @Test
+    public void toSortedArray_ShouldReturnAscendingOrderAndLeaveHeapIntact() {
+        heap.add(10);
+        heap.add(5);
+        heap.add(15);
+        heap.add(1);
+        assertArrayEquals("Elements should come back in ascending order",
+                new Object[] {1, 5, 10, 15}, heap.toSortedArray());
+        assertEquals("Sorting should not remove anything from the heap", 4, heap.size());
+        assertEquals("Sorting should not disturb the root", Integer.valueOf(1), heap.get());
+    }
+
+    @Test
+    public void toSortedArray_LargeHeapOnPool_ShouldMatchArraysSort() {
+        java.util.Random random = new java.util.Random(5);
+        Integer[] input = new Integer[100_000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = random.nextInt(1000);
+        }
+        BinaryMinHeap<Integer> large = BinaryMinHeap.heapify(input);
+        java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+        try {
+            Object[] sorted = large.toSortedArray(pool);
+            java.util.Arrays.sort(input);
+            assertArrayEquals(input, sorted);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void sortedStream_ShouldStreamAscendingOrder() {
+        for (int i = 20; i > 0; i--) {
+            heap.add(i);
+        }
+        Integer[] expected = new Integer[20];
+        for (int i = 0; i < 20; i++) {
+            expected[i] = i + 1;
+        }
+        assertArrayEquals(expected, heap.sortedStream().toArray(Integer[]::new));
+        assertEquals(20, heap.size());
+    }
+
+    @Test
+    public void heapify_LargeInput_ShouldProduceValidHeap() {
+        Integer[] input = new Integer[100000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (i * 7919) % input.length;
+        }
+        BinaryMinHeap<Integer> built = BinaryMinHeap.heapify(input);
+        assertEquals(input.length, built.size());
+        for (int i = 0; i < input.length; i++) {
+            assertEquals("heapify should produce a valid min-heap", Integer.valueOf(i), built.remove());
+        }
+    }
+
+    @Test
+    public void heapify_EmptyInput_ShouldProduceEmptyHeap() {
+        BinaryMinHeap<Integer> built = BinaryMinHeap.heapify(new Integer[0]);
+        assertTrue(built.isEmpty());
+        built.add(3);
+        assertEquals(Integer.valueOf(3), built.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void heapify_NullElement_ShouldThrowIllegalArgumentException() {
+        BinaryMinHeap.heapify(new Integer[] {1, null, 3});
+    }
+
+    @Test
+    public void stream_ShouldReturnAscendingOrderWithoutModifyingHeap() {
+        for (int i = 0; i < 100; i++) {
+            heap.add((i * 37) % 100);
+        }
+        Object[] streamed = heap.stream().toArray();
+        assertEquals(100, streamed.length);
+        for (int i = 0; i < 100; i++) {
+            assertEquals("stream() should be in ascending order", i, streamed[i]);
+        }
+        assertEquals("stream() should not consume the heap", 100, heap.size());
+    }
+
+    @Test
+    public void stream_Limit_ShouldOnlyVisitRequestedElements() {
+        for (int i = 50; i > 0; i--) {
+            heap.add(i);
+        }
+        assertArrayEquals(new Object[] {1, 2, 3}, heap.stream().limit(3).toArray());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void stream_ModifiedDuringTraversal_ShouldThrowConcurrentModificationException() {
+        heap.add(1);
+        heap.add(2);
+        java.util.Iterator<Integer> it = heap.stream().iterator();
+        it.next();
+        heap.add(3);
+        it.next();
+    }
+
+    @Test
+    public void spliterator_ShouldBeSizedAndUnordered() {
+        for (int i = 0; i < 10; i++) {
+            heap.add(i);
+        }
+        java.util.Spliterator<Integer> spliterator = heap.spliterator();
+        assertTrue(spliterator.hasCharacteristics(java.util.Spliterator.SIZED));
+        assertTrue(spliterator.hasCharacteristics(java.util.Spliterator.SUBSIZED));
+        assertFalse(spliterator.hasCharacteristics(java.util.Spliterator.ORDERED));
+        assertEquals(10, spliterator.estimateSize());
+    }
+
+    @Test
+    public void parallelStream_ShouldVisitEveryElement() {
+        for (int i = 1; i <= 1000; i++) {
+            heap.add(i);
+        }
+        assertEquals("Parallel sum should cover every element", 500500, heap.parallelStream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    public void asJavaIterable_ShouldWorkInForEachLoop() {
+        heap.add(3);
+        heap.add(1);
+        heap.add(2);
+        int expected = 1;
+        for (Integer value : heap.asJavaIterable()) {
+            assertEquals(Integer.valueOf(expected++), value);
+        }
+        assertEquals(4, expected);
+    }
+
+    @Test
+    public void asJavaIterable_ShouldLeaveHeapIntact() {
+        for (int i = 10; i > 0; i--) {
+            heap.add(i);
+        }
+        java.util.Iterator<Integer> iterator = heap.asJavaIterable().iterator();
+        assertEquals(Integer.valueOf(1), iterator.next());
+        assertEquals(Integer.valueOf(2), iterator.next());
+        assertEquals("Lazy iteration should not consume the heap", 10, heap.size());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void asJavaIterable_ModifiedDuringIteration_ShouldThrowConcurrentModificationException() {
+        heap.add(1);
+        heap.add(2);
+        java.util.Iterator<Integer> iterator = heap.asJavaIterable().iterator();
+        iterator.next();
+        heap.add(0);
+        iterator.next();
+    }
+
+    @Test
+    public void removalStrategy_Default_ShouldBeTopDown() {
+        assertEquals(BinaryMinHeap.RemovalStrategy.TOP_DOWN, heap.removalStrategy());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setRemovalStrategy_Null_ShouldThrowIllegalArgumentException() {
+        heap.setRemovalStrategy(null);
+    }
+
+    @Test
+    public void remove_BottomUpStrategy_ShouldReturnAscendingOrder() {
+        heap.setRemovalStrategy(BinaryMinHeap.RemovalStrategy.BOTTOM_UP);
+        for (int i = 0; i < 1000; i++) {
+            heap.add((i * 7919) % 1000);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("Bottom-up removal should keep priority order", Integer.valueOf(i), heap.remove());
+        }
+    }
+
+    @Test
+    public void remove_BottomUpStrategy_ShouldHandleDuplicatesAndInterleavedAdds() {
+        heap.setRemovalStrategy(BinaryMinHeap.RemovalStrategy.BOTTOM_UP);
+        heap.add(5);
+        heap.add(5);
+        heap.add(1);
+        assertEquals(Integer.valueOf(1), heap.remove());
+        heap.add(3);
+        assertEquals(Integer.valueOf(3), heap.remove());
+        assertEquals(Integer.valueOf(5), heap.remove());
+        assertEquals(Integer.valueOf(5), heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void remove_BottomUpStrategy_ShouldUseFewerComparisons() {
+        HeapMetrics topDown = new HeapMetrics();
+        HeapMetrics bottomUp = new HeapMetrics();
+        BinaryMinHeap<Integer> first = new BinaryMinHeap<>(10, topDown);
+        BinaryMinHeap<Integer> second = new BinaryMinHeap<>(10, bottomUp);
+        second.setRemovalStrategy(BinaryMinHeap.RemovalStrategy.BOTTOM_UP);
+        for (int i = 0; i < 4096; i++) {
+            first.add((i * 7919) % 4096);
+            second.add((i * 7919) % 4096);
+        }
+        while (!first.isEmpty()) {
+            first.remove();
+            second.remove();
+        }
+        assertTrue("Bottom-up removal should need fewer comparisons",
+                bottomUp.snapshot().removeComparisons().mean() < topDown.snapshot().removeComparisons().mean());
+    }
+
+    @Test
+    public void metrics_Reset_ShouldDiscardRecordedValues() {
+        HeapMetrics metrics = new HeapMetrics();
+        BinaryMinHeap<Integer> instrumented = new BinaryMinHeap<>(10, metrics);
+        instrumented.add(1);
+        metrics.reset();
+        assertEquals("Reset should discard recorded adds", 0, metrics.snapshot().addComparisons().count());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void replace_OnEmptyHeap_ShouldThrowNoSuchElementException() {
+        heap.replace(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void replace_NullElement_ShouldThrowIllegalArgumentException() {
+        heap.add(1);
+        heap.replace(null);
+    }
+
+    @Test
+    public void replace_ShouldReturnMinimumAndKeepHeapOrder() {
+        heap.add(3);
+        heap.add(1);
+        heap.add(5);
+        assertEquals("Replace should return the old minimum", Integer.valueOf(1), heap.replace(4));
+        assertEquals(3, heap.size());
+        assertEquals(Integer.valueOf(3), heap.remove());
+        assertEquals(Integer.valueOf(4), heap.remove());
+        assertEquals(Integer.valueOf(5), heap.remove());
+    }
+
+    @Test
+    public void replace_SmallerThanMinimum_ShouldBecomeNewMinimum() {
+        heap.add(3);
+        heap.add(5);
+        heap.replace(0);
+        assertEquals(Integer.valueOf(0), heap.get());
+    }
+
 
 
 
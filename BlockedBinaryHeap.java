@@ -0,0 +1,257 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap laid out as a B-heap, so that very large heaps touch fewer cache lines
+ * and memory pages per operation than the classic implicit layout used by BinaryMinHeap.
+ *
+ * The backing array is split into pages of 2^pageShift slots. Each page holds a complete
+ * binary subtree of pageShift levels in its slots 1 to 2^pageShift - 1 (slot 0 is unused);
+ * the two children of a node on a page's bottom level are the roots of two child pages.
+ * A root-to-leaf path therefore stays on one page for pageShift levels at a time, where the
+ * implicit layout moves to a new cache line, and eventually a new page, at every level.
+ *
+ * Pages are filled one after another and each page is filled level by level, so the last
+ * element is always a leaf and new elements always have a parent, as in an ordinary heap.
+ * Note that only the array of references benefits from the layout; comparing elements
+ * still has to follow those references to the elements themselves.
+ *
+ * @param <E> the type of elements in this heap, which must be Comparable
+ */
+public class BlockedBinaryHeap<E extends Comparable<E>> implements PriorityQueue<E>
+{
+    /**
+     * 2^10 references fill a 4 KiB page with compressed references.
+     */
+    private static final int DEFAULT_PAGE_SHIFT = 10;
+    private static final int ROOT = 1;
+
+    private final int _shift;
+    private final int _mask;
+    private final int _half;
+    private E[] _slots;
+    private int _size;
+
+    /**
+     * Constructs a new BlockedBinaryHeap with 4 KiB pages.
+     */
+    public BlockedBinaryHeap()
+    {
+        this(DEFAULT_PAGE_SHIFT);
+    }
+
+    /**
+     * Constructs a new BlockedBinaryHeap with pages of 2^pageShift slots.
+     * A page shift of 4 matches a 64-byte cache line with compressed references,
+     * and 10 matches a 4 KiB memory page.
+     *
+     * @param pageShift the base-2 logarithm of the page size, from 1 to 16
+     * @throws IllegalArgumentException if pageShift is out of range
+     */
+    public BlockedBinaryHeap(int pageShift)
+    {
+        if (pageShift < 1 || pageShift > 16)
+        {
+            throw new IllegalArgumentException();
+        }
+        _shift = pageShift;
+        _mask = (1 << pageShift) - 1;
+        _half = 1 << (pageShift - 1);
+        _slots = (E[]) new Comparable[1 << pageShift];
+        _size = 0;
+    }
+
+    /**
+     * Adds the specified element to the heap in priority order.
+     *
+     * @param element the element to add to the heap
+     * @throws IllegalArgumentException if the element is null
+     */
+    public void add(E element)
+    {
+        if (element == null)
+        {
+            throw new IllegalArgumentException("Cannot add null to the BlockedBinaryHeap");
+        }
+        int slot = _slotOf(_size);
+        if (slot >= _slots.length)
+        {
+            _slots = Arrays.copyOf(_slots, _slots.length * 2);
+        }
+        _siftUp(slot, element);
+        _size++;
+    }
+
+    /**
+     * Retrieves, without removing, the smallest element of the heap.
+     *
+     * @return the smallest element
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public E get()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        return _slots[ROOT];
+    }
+
+    /**
+     * Retrieves and removes the smallest element of the heap.
+     *
+     * @return the smallest element
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public E remove()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        E min = _slots[ROOT];
+        int last = _slotOf(--_size);
+        E element = _slots[last];
+        _slots[last] = null;
+        if (_size > 0)
+        {
+            _siftDown(ROOT, element);
+        }
+        return min;
+    }
+
+    /**
+     * Clears the heap, removing all elements.
+     */
+    public void clear()
+    {
+        Arrays.fill(_slots, null);
+        _size = 0;
+    }
+
+    /**
+     * Returns the number of elements in the heap.
+     *
+     * @return the number of elements
+     */
+    public int size()
+    {
+        return _size;
+    }
+
+    /**
+     * Returns _size == 0
+     * @return returns _size == 0
+     */
+    public boolean isEmpty()
+    {
+        return _size == 0;
+    }
+
+    /**
+     * Moves the hole at the given slot up until the element fits, then stores it there.
+     *
+     * @param slot the slot of the hole
+     * @param element the element to place
+     */
+    private void _siftUp(int slot, E element)
+    {
+        while (slot != ROOT)
+        {
+            int parentSlot = _parent(slot);
+            E parent = _slots[parentSlot];
+            if (element.compareTo(parent) >= 0)
+            {
+                break;
+            }
+            _slots[slot] = parent;
+            slot = parentSlot;
+        }
+        _slots[slot] = element;
+    }
+
+    /**
+     * Moves the hole at the given slot down until the element fits, then stores it there.
+     *
+     * @param slot the slot of the hole
+     * @param element the element to place
+     */
+    private void _siftDown(int slot, E element)
+    {
+        while (true)
+        {
+            int page = slot >>> _shift;
+            int offset = slot & _mask;
+            int left;
+            int right;
+            boolean hasRight;
+            if (offset < _half)
+            {
+                int leftPosition = page * _mask + (offset << 1) - 1;
+                if (leftPosition >= _size)
+                {
+                    break;
+                }
+                left = (page << _shift) | (offset << 1);
+                right = left + 1;
+                hasRight = leftPosition + 1 < _size;
+            }
+            else
+            {
+                // Check positions before shifting so pages far past the end cannot overflow.
+                long childPage = ((long) page << _shift) + 1 + ((offset - _half) << 1);
+                if (childPage * _mask >= _size)
+                {
+                    break;
+                }
+                left = ((int) childPage << _shift) | ROOT;
+                right = left + (1 << _shift);
+                hasRight = (childPage + 1) * _mask < _size;
+            }
+            int smallest = left;
+            if (hasRight && _slots[right].compareTo(_slots[left]) < 0)
+            {
+                smallest = right;
+            }
+            if (element.compareTo(_slots[smallest]) <= 0)
+            {
+                break;
+            }
+            _slots[slot] = _slots[smallest];
+            slot = smallest;
+        }
+        _slots[slot] = element;
+    }
+
+    /**
+     * Returns the slot of a node's parent. Within a page this is the usual offset / 2;
+     * a page root's parent is the bottom-level node of the parent page it hangs from.
+     *
+     * @param slot the slot of a node other than the root
+     * @return the slot of its parent
+     */
+    private int _parent(int slot)
+    {
+        int offset = slot & _mask;
+        if (offset > ROOT)
+        {
+            return (slot & ~_mask) | (offset >>> 1);
+        }
+        int page = (slot >>> _shift) - 1;
+        int parentPage = page >>> _shift;
+        return (parentPage << _shift) | (_half + ((page & _mask) >>> 1));
+    }
+
+    /**
+     * Returns the slot of the element with the given fill position. Pages are filled in order,
+     * each holding 2^pageShift - 1 elements.
+     *
+     * @param position the 0-based fill position
+     * @return the slot for that position
+     */
+    private int _slotOf(int position)
+    {
+        int perPage = _mask;
+        return ((position / perPage) << _shift) | (position % perPage + 1);
+    }
+}
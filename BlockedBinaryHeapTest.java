@@ -0,0 +1,81 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class BlockedBinaryHeapTest {
+
+    private BlockedBinaryHeap<Integer> heap;
+
+    @Before
+    public void setUp() {
+        heap = new BlockedBinaryHeap<>(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_ZeroPageShift_ShouldThrowIllegalArgumentException() {
+        new BlockedBinaryHeap<Integer>(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_NullElement_ShouldThrowIllegalArgumentException() {
+        heap.add(null);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void get_OnEmptyHeap_ShouldThrowNoSuchElementException() {
+        heap.get();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void remove_OnEmptyHeap_ShouldThrowNoSuchElementException() {
+        heap.remove();
+    }
+
+    @Test
+    public void remove_MultipleElements_ShouldReturnAscendingOrder() {
+        heap.add(10);
+        heap.add(5);
+        heap.add(15);
+        assertEquals(Integer.valueOf(5), heap.get());
+        assertEquals(Integer.valueOf(5), heap.remove());
+        assertEquals(Integer.valueOf(10), heap.remove());
+        assertEquals(Integer.valueOf(15), heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void clear_ShouldRemoveAllElements() {
+        heap.add(1);
+        heap.add(2);
+        heap.clear();
+        assertEquals(0, heap.size());
+        heap.add(3);
+        assertEquals(Integer.valueOf(3), heap.get());
+    }
+
+    @Test
+    public void stressTest_SeveralPageSizes_ShouldMatchBinaryMinHeap() {
+        Random random = new Random(5);
+        for (int pageShift : new int[] {1, 2, 3, 4, 10}) {
+            PriorityQueue<Integer> expected = new BinaryMinHeap<>();
+            PriorityQueue<Integer> actual = new BlockedBinaryHeap<>(pageShift);
+            for (int i = 0; i < 20000; i++) {
+                if (actual.isEmpty() || random.nextInt(5) < 3) {
+                    int value = random.nextInt(10000);
+                    expected.add(value);
+                    actual.add(value);
+                } else {
+                    assertEquals("Page shift " + pageShift + " should agree with BinaryMinHeap",
+                            expected.remove(), actual.remove());
+                }
+            }
+            while (!expected.isEmpty()) {
+                assertEquals(expected.remove(), actual.remove());
+            }
+            assertTrue(actual.isEmpty());
+        }
+    }
+}
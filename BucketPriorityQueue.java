@@ -0,0 +1,216 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+/**
+ * A priority queue for elements whose priorities fall in a small fixed range, such as QoS classes.
+ * Each priority has its own FIFO bucket and a bitmap records which buckets are non-empty,
+ * so add() is O(1) and get()/remove() only scan one bit per 64 priorities to find the minimum.
+ * Elements with equal priority come out in the order they were added.
+ *
+ * @param <E> the type of elements in this queue
+ */
+public class BucketPriorityQueue<E extends Comparable<E>> implements PriorityQueue<E>
+{
+    private static final int DEFAULT = 4;
+
+    private final ToIntFunction<? super E> _priority;
+    private final Bucket<E>[] _buckets;
+    private final long[] _nonEmpty;
+    private int _size;
+
+    /**
+     * Constructs a new BucketPriorityQueue for priorities 0 (highest) to priorities - 1 (lowest).
+     *
+     * @param priorities the number of distinct priorities
+     * @param priority a function returning the priority of an element
+     * @throws IllegalArgumentException if priorities is less than 1 or priority is null
+     */
+    public BucketPriorityQueue(int priorities, ToIntFunction<? super E> priority)
+    {
+        if (priorities < 1 || priority == null)
+        {
+            throw new IllegalArgumentException();
+        }
+        _priority = priority;
+        _buckets = (Bucket<E>[]) new Bucket[priorities];
+        _nonEmpty = new long[(priorities + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    /**
+     * Adds the specified element to the back of its priority's bucket.
+     *
+     * @param element the element to add to the queue
+     * @throws IllegalArgumentException if the element is null or its priority is out of range
+     */
+    public void add(E element)
+    {
+        if (element == null)
+        {
+            throw new IllegalArgumentException("Cannot add null to the BucketPriorityQueue");
+        }
+        int priority = _priority.applyAsInt(element);
+        if (priority < 0 || priority >= _buckets.length)
+        {
+            throw new IllegalArgumentException("Priority " + priority + " is outside 0.." + (_buckets.length - 1));
+        }
+        Bucket<E> bucket = _buckets[priority];
+        if (bucket == null)
+        {
+            bucket = new Bucket<>();
+            _buckets[priority] = bucket;
+        }
+        bucket.addLast(element);
+        _nonEmpty[priority >>> 6] |= 1L << priority;
+        _size++;
+    }
+
+    /**
+     * Retrieves, without removing, the oldest element of the highest non-empty priority.
+     *
+     * @return the next element, in priority order
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public E get()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        return _buckets[_firstNonEmpty()].first();
+    }
+
+    /**
+     * Retrieves and removes the oldest element of the highest non-empty priority.
+     *
+     * @return the next element, in priority order
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public E remove()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        int priority = _firstNonEmpty();
+        Bucket<E> bucket = _buckets[priority];
+        E element = bucket.removeFirst();
+        if (bucket.isEmpty())
+        {
+            _nonEmpty[priority >>> 6] &= ~(1L << priority);
+        }
+        _size--;
+        return element;
+    }
+
+    /**
+     * Clears the queue, removing all elements.
+     */
+    public void clear()
+    {
+        for (Bucket<E> bucket : _buckets)
+        {
+            if (bucket != null)
+            {
+                bucket.clear();
+            }
+        }
+        Arrays.fill(_nonEmpty, 0);
+        _size = 0;
+    }
+
+    /**
+     * Returns the number of elements in the queue.
+     *
+     * @return the number of elements
+     */
+    public int size()
+    {
+        return _size;
+    }
+
+    /**
+     * Returns _size == 0
+     * @return returns _size == 0
+     */
+    public boolean isEmpty()
+    {
+        return _size == 0;
+    }
+
+    /**
+     * Finds the smallest non-empty priority from the bitmap. Must not be called on an empty queue.
+     *
+     * @return the smallest priority with at least one element
+     */
+    private int _firstNonEmpty()
+    {
+        int word = 0;
+        while (_nonEmpty[word] == 0)
+        {
+            word++;
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(_nonEmpty[word]);
+    }
+
+    /**
+     * A growable circular FIFO buffer.
+     *
+     * @param <E> the type of elements in the bucket
+     */
+    private static final class Bucket<E>
+    {
+        private Object[] _elements = new Object[DEFAULT];
+        private int _head;
+        private int _count;
+
+        private void addLast(E element)
+        {
+            if (_count == _elements.length)
+            {
+                _grow();
+            }
+            _elements[(_head + _count) & (_elements.length - 1)] = element;
+            _count++;
+        }
+
+        private E first()
+        {
+            return (E) _elements[_head];
+        }
+
+        private E removeFirst()
+        {
+            E element = (E) _elements[_head];
+            _elements[_head] = null;
+            _head = (_head + 1) & (_elements.length - 1);
+            _count--;
+            return element;
+        }
+
+        private boolean isEmpty()
+        {
+            return _count == 0;
+        }
+
+        private void clear()
+        {
+            Arrays.fill(_elements, null);
+            _head = 0;
+            _count = 0;
+        }
+
+        /**
+         * Doubles the buffer, unwrapping the elements so the head moves back to index 0.
+         */
+        private void _grow()
+        {
+            Object[] grown = new Object[_elements.length * 2];
+            int tail = _elements.length - _head;
+            System.arraycopy(_elements, _head, grown, 0, tail);
+            System.arraycopy(_elements, 0, grown, tail, _head);
+            _elements = grown;
+            _head = 0;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+public class BucketPriorityQueueTest {
+
+    private BucketPriorityQueue<Integer> queue;
+
+    @Before
+    public void setUp() {
+        // Priority is the value modulo 256, so 256 and 0 share a bucket.
+        queue = new BucketPriorityQueue<>(256, value -> value % 256);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_ZeroPriorities_ShouldThrowIllegalArgumentException() {
+        new BucketPriorityQueue<Integer>(0, value -> value);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_NullElement_ShouldThrowIllegalArgumentException() {
+        queue.add(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_PriorityOutOfRange_ShouldThrowIllegalArgumentException() {
+        new BucketPriorityQueue<Integer>(4, value -> value).add(4);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void get_OnEmptyQueue_ShouldThrowNoSuchElementException() {
+        queue.get();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void remove_OnEmptyQueue_ShouldThrowNoSuchElementException() {
+        queue.remove();
+    }
+
+    @Test
+    public void remove_MultiplePriorities_ShouldReturnHighestPriorityFirst() {
+        queue.add(200);
+        queue.add(3);
+        queue.add(64);
+        queue.add(130);
+        assertEquals(Integer.valueOf(3), queue.get());
+        assertEquals(Integer.valueOf(3), queue.remove());
+        assertEquals(Integer.valueOf(64), queue.remove());
+        assertEquals(Integer.valueOf(130), queue.remove());
+        assertEquals(Integer.valueOf(200), queue.remove());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void remove_EqualPriorities_ShouldBeFifo() {
+        queue.add(256);
+        queue.add(0);
+        queue.add(512);
+        assertEquals("Oldest element of a priority comes out first", Integer.valueOf(256), queue.remove());
+        assertEquals(Integer.valueOf(0), queue.remove());
+        assertEquals(Integer.valueOf(512), queue.remove());
+    }
+
+    @Test
+    public void add_ManyToOneBucket_ShouldGrowAndKeepFifoOrder() {
+        for (int i = 0; i < 100; i++) {
+            queue.add(i * 256 + 5);
+            if (i % 3 == 0) {
+                queue.add(i * 256 + 5);
+                queue.remove();
+            }
+        }
+        int previous = -1;
+        while (!queue.isEmpty()) {
+            int value = queue.remove();
+            assertTrue("Equal priorities should come out in insertion order", value >= previous);
+            previous = value;
+        }
+    }
+
+    @Test
+    public void clear_ShouldRemoveAllElements() {
+        queue.add(1);
+        queue.add(2);
+        queue.clear();
+        assertEquals(0, queue.size());
+        assertTrue(queue.isEmpty());
+        queue.add(7);
+        assertEquals(Integer.valueOf(7), queue.get());
+    }
+}
@@ -0,0 +1,195 @@
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A min-priority queue that stores each distinct element once with a count.
+ *
+ * Equal elements are coalesced through a hash index, so adding an element that is already
+ * queued is O(1) and the underlying BinaryMinHeap only grows with the number of distinct
+ * elements. This pays off when a few thousand priorities are repeated millions of times.
+ * Elements must have equals() and hashCode() consistent with compareTo().
+ *
+ * By default remove() hands back the first instance added for each distinct value.
+ * When instances are retained, every added instance is kept in a FIFO per value and handed
+ * back in the order it was added, for elements that carry a payload outside equals().
+ *
+ * @param <E> the type of elements in this queue
+ */
+public class CountingPriorityQueue<E extends Comparable<E>> implements PriorityQueue<E>
+{
+    private final BinaryMinHeap<Entry<E>> _heap = new BinaryMinHeap<>();
+    private final Map<E, Entry<E>> _index = new HashMap<>();
+    private final boolean _retainInstances;
+    private int _size;
+
+    /**
+     * Constructs a new CountingPriorityQueue that does not retain individual instances.
+     */
+    public CountingPriorityQueue()
+    {
+        this(false);
+    }
+
+    /**
+     * Constructs a new CountingPriorityQueue.
+     *
+     * @param retainInstances true to keep every added instance and return them in FIFO order
+     *                        per distinct value, false to keep one instance per value
+     */
+    public CountingPriorityQueue(boolean retainInstances)
+    {
+        _retainInstances = retainInstances;
+    }
+
+    /**
+     * Adds the specified element. If an equal element is already queued its count is
+     * incremented in O(1); otherwise a new entry is added to the heap in O(log d),
+     * where d is the number of distinct elements.
+     *
+     * @param element the element to add to the queue
+     * @throws IllegalArgumentException if the element is null
+     */
+    public void add(E element)
+    {
+        if (element == null)
+        {
+            throw new IllegalArgumentException("Cannot add null to the CountingPriorityQueue");
+        }
+        Entry<E> entry = _index.get(element);
+        if (entry == null)
+        {
+            entry = new Entry<>(element, _retainInstances);
+            _index.put(element, entry);
+            _heap.add(entry);
+        }
+        else
+        {
+            entry._count++;
+            if (_retainInstances)
+            {
+                entry._instances.addLast(element);
+            }
+        }
+        _size++;
+    }
+
+    /**
+     * Retrieves, without removing, the next instance of the smallest element.
+     *
+     * @return the next element, in priority order
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public E get()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        Entry<E> entry = _heap.get();
+        return _retainInstances ? entry._instances.peekFirst() : entry._element;
+    }
+
+    /**
+     * Retrieves and removes one instance of the smallest element. This is O(1) unless it
+     * was the last instance of that value, in which case the entry leaves the heap in O(log d).
+     *
+     * @return the next element, in priority order
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public E remove()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        Entry<E> entry = _heap.get();
+        E element = _retainInstances ? entry._instances.pollFirst() : entry._element;
+        if (--entry._count == 0)
+        {
+            _heap.remove();
+            _index.remove(entry._element);
+        }
+        _size--;
+        return element;
+    }
+
+    /**
+     * Clears the queue, removing all elements.
+     */
+    public void clear()
+    {
+        _heap.clear();
+        _index.clear();
+        _size = 0;
+    }
+
+    /**
+     * Returns the total number of elements in the queue, counting duplicates.
+     *
+     * @return the number of elements
+     */
+    public int size()
+    {
+        return _size;
+    }
+
+    /**
+     * Returns the number of distinct elements in the queue, which is the size of the heap.
+     *
+     * @return the number of distinct elements
+     */
+    public int distinctSize()
+    {
+        return _heap.size();
+    }
+
+    /**
+     * Returns how many instances of the given element are queued.
+     *
+     * @param element the element to count
+     * @return the number of queued elements equal to it
+     */
+    public int count(E element)
+    {
+        Entry<E> entry = _index.get(element);
+        return entry == null ? 0 : entry._count;
+    }
+
+    /**
+     * Returns _size == 0
+     * @return returns _size == 0
+     */
+    public boolean isEmpty()
+    {
+        return _size == 0;
+    }
+
+    /**
+     * One distinct element with the number of times it is queued.
+     *
+     * @param <E> the type of the element
+     */
+    private static final class Entry<E extends Comparable<E>> implements Comparable<Entry<E>>
+    {
+        private final E _element;
+        private final ArrayDeque<E> _instances;
+        private int _count = 1;
+
+        private Entry(E element, boolean retainInstances)
+        {
+            _element = element;
+            _instances = retainInstances ? new ArrayDeque<>() : null;
+            if (retainInstances)
+            {
+                _instances.addLast(element);
+            }
+        }
+
+        public int compareTo(Entry<E> other)
+        {
+            return _element.compareTo(other._element);
+        }
+    }
+}
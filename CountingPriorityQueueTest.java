@@ -0,0 +1,104 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+public class CountingPriorityQueueTest {
+
+    private CountingPriorityQueue<Integer> queue;
+
+    @Before
+    public void setUp() {
+        queue = new CountingPriorityQueue<>();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_NullElement_ShouldThrowIllegalArgumentException() {
+        queue.add(null);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void get_OnEmptyQueue_ShouldThrowNoSuchElementException() {
+        queue.get();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void remove_OnEmptyQueue_ShouldThrowNoSuchElementException() {
+        queue.remove();
+    }
+
+    @Test
+    public void add_Duplicates_ShouldCoalesceIntoOneEntry() {
+        for (int i = 0; i < 1000; i++) {
+            queue.add(i % 3);
+        }
+        assertEquals("Total size should count duplicates", 1000, queue.size());
+        assertEquals("Heap should only hold distinct elements", 3, queue.distinctSize());
+        assertEquals(334, queue.count(0));
+        assertEquals(0, queue.count(7));
+    }
+
+    @Test
+    public void remove_Duplicates_ShouldReturnEachInstanceInPriorityOrder() {
+        queue.add(2);
+        queue.add(1);
+        queue.add(2);
+        queue.add(1);
+        assertEquals(Integer.valueOf(1), queue.remove());
+        assertEquals(Integer.valueOf(1), queue.remove());
+        assertEquals(1, queue.distinctSize());
+        assertEquals(Integer.valueOf(2), queue.remove());
+        assertEquals(Integer.valueOf(2), queue.remove());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.distinctSize());
+    }
+
+    @Test
+    public void remove_RetainedInstances_ShouldComeOutFifoPerValue() {
+        CountingPriorityQueue<Job> jobs = new CountingPriorityQueue<>(true);
+        jobs.add(new Job(2, "b1"));
+        jobs.add(new Job(1, "a1"));
+        jobs.add(new Job(2, "b2"));
+        jobs.add(new Job(1, "a2"));
+        assertEquals("a1", jobs.get().payload);
+        assertEquals("a1", jobs.remove().payload);
+        assertEquals("a2", jobs.remove().payload);
+        assertEquals("b1", jobs.remove().payload);
+        assertEquals("b2", jobs.remove().payload);
+    }
+
+    @Test
+    public void clear_ShouldRemoveAllElements() {
+        queue.add(1);
+        queue.add(1);
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.count(1));
+    }
+
+    /**
+     * A job whose equality and ordering only consider its priority.
+     */
+    private static class Job implements Comparable<Job> {
+        final int priority;
+        final String payload;
+
+        Job(int priority, String payload) {
+            this.priority = priority;
+            this.payload = payload;
+        }
+
+        public int compareTo(Job other) {
+            return Integer.compare(priority, other.priority);
+        }
+
+        public boolean equals(Object other) {
+            return other instanceof Job && ((Job) other).priority == priority;
+        }
+
+        public int hashCode() {
+            return priority;
+        }
+    }
+}
@@ -0,0 +1,819 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * A BinaryMinHeap that survives restarts by logging every change to a write-ahead log.
+ *
+ * Each add(), remove() and clear() is appended to an in-memory batch as a log record of
+ * [length][lsn][type][payload][crc32]. The batch is written and forced to disk as one group
+ * commit once it holds batchSize records, when the background flusher runs every
+ * flushInterval milliseconds, or when sync() is called. An operation is therefore only
+ * durable once a later sync() returns; anything still in the batch is lost on a crash.
+ *
+ * Every checkpointInterval records, the heap array is written to a checkpoint file, which is
+ * written under a temporary name, forced and then renamed over the previous one, and the log
+ * is truncated. Opening a queue loads the checkpoint and replays only the log records after it.
+ * A torn or corrupt record at the end of the log, left by a crash part way through a write,
+ * ends the replay and is cut off.
+ *
+ * Followers attached with attachFollower() receive a snapshot of the heap followed by every
+ * record as it is committed, and keep a warm copy of the heap in a ReplicaPriorityQueue.
+ * Because the heap is restored in its exact array order and the same operations are replayed
+ * in the same order, a replica or a recovered queue ends up with an identical array.
+ * Each follower is fed by its own sender thread from a bounded buffer of committed batches,
+ * so a slow follower never holds the queue's lock; one that falls more than 1024 batches
+ * behind is dropped and must attach again.
+ *
+ * If a log write fails, every later change throws UncheckedIOException, since the heap and
+ * the log may no longer agree; reopen the queue to recover from what reached the disk.
+ * An element the codec cannot encode is rejected before the heap changes and does not count
+ * as a log failure.
+ * All methods are synchronized, so the queue may be shared between threads.
+ *
+ * @param <E> the type of elements in this queue
+ */
+public class DurablePriorityQueue<E extends Comparable<E>> implements PriorityQueue<E>, Closeable
+{
+    static final byte ADD = 1;
+    static final byte REMOVE = 2;
+    static final byte CLEAR = 3;
+    static final byte SNAPSHOT = 4;
+
+    private static final String LOG = "wal.log";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String CHECKPOINT_TEMP = "checkpoint.tmp";
+    private static final int DEFAULT_BATCH_SIZE = 64;
+    private static final long DEFAULT_FLUSH_INTERVAL = 10;
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 100_000;
+    private static final int FOLLOWER_BUFFER = 1024;
+    private static final byte[] NO_PAYLOAD = new byte[0];
+
+    private final Path _directory;
+    private final Codec<E> _codec;
+    private final int _batchSize;
+    private final int _checkpointInterval;
+    private final FileChannel _log;
+    private final ByteArrayOutputStream _batch = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream _scratch = new ByteArrayOutputStream();
+    private final DataOutputStream _scratchOut = new DataOutputStream(_scratch);
+    private final CRC32 _crc = new CRC32();
+    private final ByteBuffer _header = ByteBuffer.allocate(Long.BYTES + 1);
+    private final List<Follower> _followers = new ArrayList<>();
+    private final ScheduledExecutorService _flusher;
+    private BinaryMinHeap<E> _heap;
+    private long _lsn;
+    private int _batchRecords;
+    private int _sinceCheckpoint;
+    private IOException _failure;
+    private boolean _closed;
+
+    /**
+     * Converts elements to and from bytes for the log.
+     * Encoded elements must be self-delimiting: read() is handed a stream positioned at the
+     * start of an element and must consume exactly what write() produced.
+     *
+     * @param <E> the type of elements
+     */
+    public interface Codec<E>
+    {
+        /**
+         * Writes an element.
+         *
+         * @param element the element to write
+         * @param out the stream to write to
+         * @throws IOException if writing fails
+         */
+        void write(E element, DataOutput out) throws IOException;
+
+        /**
+         * Reads an element written by write().
+         *
+         * @param in the stream to read from
+         * @return the element
+         * @throws IOException if reading fails
+         */
+        E read(DataInput in) throws IOException;
+    }
+
+    /**
+     * Opens, or creates, a durable queue in the given directory with the default
+     * batch size of 64, a 10 ms flush interval and a checkpoint every 100,000 records.
+     *
+     * @param directory the directory holding the log and checkpoint files
+     * @param codec the codec for elements
+     * @throws IOException if the files cannot be read or created
+     * @throws IllegalArgumentException if directory or codec is null
+     */
+    public DurablePriorityQueue(Path directory, Codec<E> codec) throws IOException
+    {
+        this(directory, codec, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Opens, or creates, a durable queue in the given directory, recovering its contents
+     * from the checkpoint and log files if they exist.
+     *
+     * @param directory the directory holding the log and checkpoint files
+     * @param codec the codec for elements
+     * @param batchSize the number of records that triggers a group commit
+     * @param flushInterval the milliseconds between background commits, or 0 for none
+     * @param checkpointInterval the number of records between checkpoints, or 0 for none
+     * @throws IOException if the files cannot be read or created
+     * @throws IllegalArgumentException if directory or codec is null, batchSize is less than 1,
+     *         or flushInterval or checkpointInterval is negative
+     */
+    public DurablePriorityQueue(Path directory, Codec<E> codec, int batchSize, long flushInterval,
+                                int checkpointInterval) throws IOException
+    {
+        if (directory == null || codec == null || batchSize < 1 || flushInterval < 0 || checkpointInterval < 0)
+        {
+            throw new IllegalArgumentException();
+        }
+        _directory = directory;
+        _codec = codec;
+        _batchSize = batchSize;
+        _checkpointInterval = checkpointInterval;
+        Files.createDirectories(directory);
+        _heap = new BinaryMinHeap<>();
+        _recoverCheckpoint();
+        _log = FileChannel.open(directory.resolve(LOG), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try
+        {
+            _recoverLog();
+        }
+        catch (IOException | RuntimeException e)
+        {
+            _log.close();
+            throw e;
+        }
+        if (flushInterval > 0)
+        {
+            _flusher = Executors.newSingleThreadScheduledExecutor(runnable ->
+            {
+                Thread thread = new Thread(runnable, "DurablePriorityQueue-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            _flusher.scheduleWithFixedDelay(this::_backgroundFlush, flushInterval, flushInterval,
+                    TimeUnit.MILLISECONDS);
+        }
+        else
+        {
+            _flusher = null;
+        }
+    }
+
+    /**
+     * Adds the specified element to the queue and logs it.
+     * The element is encoded before the heap is changed, so an element the codec cannot
+     * encode is rejected with the codec's exception and leaves the queue as it was.
+     *
+     * @param element the element to add to the queue
+     * @throws IllegalArgumentException if the element is null
+     * @throws UncheckedIOException if the element cannot be encoded or the log cannot be written
+     */
+    public synchronized void add(E element)
+    {
+        if (element == null)
+        {
+            throw new IllegalArgumentException("Cannot add null to the DurablePriorityQueue");
+        }
+        _checkOpen();
+        byte[] payload;
+        try
+        {
+            payload = _encode(element);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        _heap.add(element);
+        _append(ADD, payload);
+    }
+
+    /**
+     * Retrieves, without removing, the smallest element of the queue.
+     *
+     * @return the smallest element
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public synchronized E get()
+    {
+        return _heap.get();
+    }
+
+    /**
+     * Retrieves and removes the smallest element of the queue and logs the removal.
+     *
+     * @return the smallest element
+     * @throws NoSuchElementException if the queue is empty
+     * @throws UncheckedIOException if the log cannot be written
+     */
+    public synchronized E remove()
+    {
+        _checkOpen();
+        E element = _heap.remove();
+        _append(REMOVE, NO_PAYLOAD);
+        return element;
+    }
+
+    /**
+     * Clears the queue and logs it.
+     *
+     * @throws UncheckedIOException if the log cannot be written
+     */
+    public synchronized void clear()
+    {
+        _checkOpen();
+        _heap.clear();
+        _append(CLEAR, NO_PAYLOAD);
+    }
+
+    /**
+     * Returns the number of elements in the queue.
+     *
+     * @return the number of elements
+     */
+    public synchronized int size()
+    {
+        return _heap.size();
+    }
+
+    /**
+     * Returns _heap.isEmpty()
+     * @return returns _heap.isEmpty()
+     */
+    public synchronized boolean isEmpty()
+    {
+        return _heap.isEmpty();
+    }
+
+    /**
+     * Returns the log sequence number of the most recent operation.
+     *
+     * @return the last assigned LSN, or 0 for a queue that has never been changed
+     */
+    public synchronized long lsn()
+    {
+        return _lsn;
+    }
+
+    /**
+     * Commits every pending record, forcing it to disk and sending it to followers.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public synchronized void sync() throws IOException
+    {
+        _checkOpen();
+        _flush();
+    }
+
+    /**
+     * Writes a checkpoint of the heap and truncates the log.
+     *
+     * @throws IOException if the checkpoint or log cannot be written
+     */
+    public synchronized void checkpoint() throws IOException
+    {
+        _checkOpen();
+        _flush();
+        Path temp = _directory.resolve(CHECKPOINT_TEMP);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            _scratch.reset();
+            _encodeRecord(_lsn, SNAPSHOT, _snapshotPayload());
+            channel.write(ByteBuffer.wrap(_scratch.toByteArray()));
+            channel.force(true);
+        }
+        Files.move(temp, _directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        // The rename only survives a crash once the directory entry itself is on disk;
+        // without this the log could be truncated while the old checkpoint is still current.
+        try (FileChannel directory = FileChannel.open(_directory, StandardOpenOption.READ))
+        {
+            directory.force(true);
+        }
+        // A crash before the truncate is harmless: recovery skips records the checkpoint covers.
+        _log.truncate(0);
+        _log.force(true);
+        _sinceCheckpoint = 0;
+    }
+
+    /**
+     * Starts streaming the log to a follower. Pending records are committed, then the follower
+     * is sent a snapshot of the heap and, from then on, every record as it is committed.
+     * Writes to the stream happen on a sender thread of the follower's own. A follower whose
+     * stream fails, or which falls too far behind, is dropped and its stream closed; otherwise
+     * the stream is closed once everything committed before this queue was closed has been sent.
+     *
+     * @param out the stream to the follower, such as a socket's output stream
+     * @throws IOException if the log cannot be written or the snapshot cannot be encoded
+     * @throws IllegalArgumentException if out is null
+     */
+    public synchronized void attachFollower(OutputStream out) throws IOException
+    {
+        if (out == null)
+        {
+            throw new IllegalArgumentException();
+        }
+        _checkOpen();
+        _flush();
+        _scratch.reset();
+        _encodeRecord(_lsn, SNAPSHOT, _snapshotPayload());
+        Follower follower = new Follower(out);
+        follower.send(_scratch.toByteArray());
+        Thread sender = new Thread(follower, "DurablePriorityQueue-follower");
+        sender.setDaemon(true);
+        sender.start();
+        _followers.add(follower);
+    }
+
+    /**
+     * Commits pending records, stops the flusher and closes the log and follower streams.
+     *
+     * @throws IOException if the final commit fails
+     */
+    public void close() throws IOException
+    {
+        if (_flusher != null)
+        {
+            _flusher.shutdown();
+        }
+        synchronized (this)
+        {
+            if (_closed)
+            {
+                return;
+            }
+            try
+            {
+                _flush();
+            }
+            finally
+            {
+                _closed = true;
+                _log.close();
+                for (Follower follower : _followers)
+                {
+                    follower.finish();
+                }
+                _followers.clear();
+            }
+        }
+    }
+
+    /**
+     * Loads the checkpoint file, if there is one, into the heap.
+     */
+    private void _recoverCheckpoint() throws IOException
+    {
+        Path checkpoint = _directory.resolve(CHECKPOINT);
+        if (!Files.exists(checkpoint))
+        {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint))))
+        {
+            Record record = Record.read(in);
+            if (record == null || record._type != SNAPSHOT)
+            {
+                throw new StreamCorruptedException("Checkpoint does not hold a snapshot");
+            }
+            _heap = restoreSnapshot(record, _codec);
+            _lsn = record._lsn;
+        }
+    }
+
+    /**
+     * Replays the log records that come after the checkpoint, and cuts the log off at the
+     * first torn or corrupt record.
+     */
+    private void _recoverLog() throws IOException
+    {
+        long end = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(
+                _directory.resolve(LOG)))))
+        {
+            Record record;
+            while ((record = Record.read(in)) != null)
+            {
+                if (record._lsn > _lsn)
+                {
+                    apply(_heap, record, _codec);
+                    _lsn = record._lsn;
+                    _sinceCheckpoint++;
+                }
+                end += record.encodedLength();
+            }
+        }
+        catch (EOFException | StreamCorruptedException torn)
+        {
+            // The tail was being written when the process stopped; everything before it is intact.
+        }
+        if (end < _log.size())
+        {
+            _log.truncate(end);
+            _log.force(true);
+        }
+        _log.position(end);
+    }
+
+    /**
+     * Encodes one element with the codec.
+     *
+     * @param element the element to encode
+     * @return the element's bytes
+     * @throws IOException if the codec fails
+     */
+    private byte[] _encode(E element) throws IOException
+    {
+        _scratch.reset();
+        _codec.write(element, _scratchOut);
+        _scratchOut.flush();
+        return _scratch.toByteArray();
+    }
+
+    /**
+     * Encodes a record into the current batch, committing the batch when it is full
+     * and checkpointing when enough records have been logged. It is called after the heap
+     * has changed, so any failure here, checked or not, leaves the heap and the log apart
+     * and is recorded in _failure.
+     *
+     * @param type the record type
+     * @param payload the encoded element for an ADD record, otherwise empty
+     */
+    private void _append(byte type, byte[] payload)
+    {
+        try
+        {
+            _scratch.reset();
+            _encodeRecord(++_lsn, type, payload);
+            _scratch.writeTo(_batch);
+            _batchRecords++;
+            if (_batchRecords >= _batchSize)
+            {
+                _flush();
+            }
+            if (_checkpointInterval > 0 && ++_sinceCheckpoint >= _checkpointInterval)
+            {
+                checkpoint();
+            }
+        }
+        catch (IOException e)
+        {
+            _failure = e;
+            throw new UncheckedIOException(e);
+        }
+        catch (RuntimeException | Error e)
+        {
+            _failure = new IOException("Logging a record failed", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes one record to _scratch.
+     */
+    private void _encodeRecord(long lsn, byte type, byte[] payload) throws IOException
+    {
+        _header.clear();
+        _header.putLong(lsn).put(type).flip();
+        _crc.reset();
+        _crc.update(_header);
+        _crc.update(payload);
+        _scratchOut.writeInt(Long.BYTES + 1 + payload.length);
+        _scratchOut.writeLong(lsn);
+        _scratchOut.writeByte(type);
+        _scratchOut.write(payload);
+        _scratchOut.writeInt((int) _crc.getValue());
+        _scratchOut.flush();
+    }
+
+    /**
+     * Writes the batch to the log, forces it to disk and then hands it to the followers'
+     * senders, dropping any follower whose buffer is full or whose stream has failed.
+     */
+    private void _flush() throws IOException
+    {
+        if (_failure != null)
+        {
+            throw _failure;
+        }
+        if (_batchRecords == 0)
+        {
+            return;
+        }
+        byte[] bytes = _batch.toByteArray();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try
+        {
+            while (buffer.hasRemaining())
+            {
+                _log.write(buffer);
+            }
+            _log.force(false);
+        }
+        catch (IOException e)
+        {
+            _failure = e;
+            throw e;
+        }
+        _batch.reset();
+        _batchRecords = 0;
+        for (int i = _followers.size() - 1; i >= 0; i--)
+        {
+            if (!_followers.get(i).send(bytes))
+            {
+                _followers.remove(i);
+            }
+        }
+    }
+
+    private synchronized void _backgroundFlush()
+    {
+        if (_closed || _failure != null)
+        {
+            return;
+        }
+        try
+        {
+            _flush();
+        }
+        catch (IOException e)
+        {
+            // _flush() recorded the failure; the next operation reports it.
+        }
+    }
+
+    private void _checkOpen()
+    {
+        if (_closed)
+        {
+            throw new IllegalStateException("DurablePriorityQueue is closed");
+        }
+        if (_failure != null)
+        {
+            throw new UncheckedIOException("An earlier log write failed", _failure);
+        }
+    }
+
+    /**
+     * Encodes the heap in array order as [count][element]...
+     * A codec that throws an unchecked exception is reported as an IOException too,
+     * and encoding stops at the first failure.
+     */
+    private byte[] _snapshotPayload() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(_heap.size());
+        Spliterator<E> elements = _heap.spliterator();
+        Exception[] failure = new Exception[1];
+        boolean more = true;
+        while (more && failure[0] == null)
+        {
+            more = elements.tryAdvance(element ->
+            {
+                try
+                {
+                    _codec.write(element, out);
+                }
+                catch (IOException | RuntimeException e)
+                {
+                    failure[0] = e;
+                }
+            });
+        }
+        if (failure[0] instanceof IOException)
+        {
+            throw (IOException) failure[0];
+        }
+        if (failure[0] != null)
+        {
+            throw new IOException("Cannot encode the snapshot", failure[0]);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Rebuilds a heap from a SNAPSHOT record. The elements are already in heap order,
+     * so heapify leaves them exactly where they were.
+     *
+     * @param record the snapshot record
+     * @param codec the codec for elements
+     * @param <E> the type of elements
+     * @return the restored heap
+     * @throws IOException if the payload cannot be decoded
+     */
+    static <E extends Comparable<E>> BinaryMinHeap<E> restoreSnapshot(Record record, Codec<E> codec)
+            throws IOException
+    {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record._payload));
+        int count = in.readInt();
+        E[] elements = (E[]) new Comparable[count];
+        for (int i = 0; i < count; i++)
+        {
+            elements[i] = codec.read(in);
+        }
+        return BinaryMinHeap.heapify(elements);
+    }
+
+    /**
+     * Applies an ADD, REMOVE or CLEAR record to a heap.
+     *
+     * @param heap the heap to change
+     * @param record the record to apply
+     * @param codec the codec for elements
+     * @param <E> the type of elements
+     * @throws IOException if the payload cannot be decoded or the record type is unknown
+     */
+    static <E extends Comparable<E>> void apply(BinaryMinHeap<E> heap, Record record, Codec<E> codec)
+            throws IOException
+    {
+        switch (record._type)
+        {
+            case ADD:
+                heap.add(codec.read(new DataInputStream(new ByteArrayInputStream(record._payload))));
+                break;
+            case REMOVE:
+                heap.remove();
+                break;
+            case CLEAR:
+                heap.clear();
+                break;
+            default:
+                throw new StreamCorruptedException("Unexpected record type " + record._type + " at LSN " + record._lsn);
+        }
+    }
+
+    /**
+     * A follower's stream and the buffer of committed batches its sender thread writes out.
+     */
+    private static final class Follower implements Runnable
+    {
+        private static final byte[] END = new byte[0];
+
+        private final OutputStream _out;
+        private final BlockingQueue<byte[]> _buffer = new ArrayBlockingQueue<>(FOLLOWER_BUFFER);
+        private volatile boolean _dropped;
+
+        private Follower(OutputStream out)
+        {
+            _out = out;
+        }
+
+        /**
+         * Queues bytes for the sender without blocking.
+         *
+         * @param bytes the encoded records
+         * @return false if the follower has been dropped, now or earlier
+         */
+        private boolean send(byte[] bytes)
+        {
+            if (_dropped || !_buffer.offer(bytes))
+            {
+                _dropped = true;
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Lets the sender close the stream once it has written everything queued so far.
+         */
+        private void finish()
+        {
+            if (!_buffer.offer(END))
+            {
+                _dropped = true;
+            }
+        }
+
+        public void run()
+        {
+            try
+            {
+                byte[] bytes;
+                while ((bytes = _buffer.take()) != END && !_dropped)
+                {
+                    _out.write(bytes);
+                    _out.flush();
+                }
+            }
+            catch (IOException e)
+            {
+                // The follower is dropped below; it can attach again for a new snapshot.
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            finally
+            {
+                _dropped = true;
+                try
+                {
+                    _out.close();
+                }
+                catch (IOException ignored)
+                {
+                    // The follower is going away either way.
+                }
+            }
+        }
+    }
+
+    /**
+     * One decoded log record.
+     */
+    static final class Record
+    {
+        private static final int MAX_LENGTH = 1 << 30;
+
+        final long _lsn;
+        final byte _type;
+        final byte[] _payload;
+
+        private Record(long lsn, byte type, byte[] payload)
+        {
+            _lsn = lsn;
+            _type = type;
+            _payload = payload;
+        }
+
+        /**
+         * Reads the next record.
+         *
+         * @param in the stream to read from
+         * @return the record, or null if the stream ended cleanly before it
+         * @throws EOFException if the stream ended part way through the record
+         * @throws StreamCorruptedException if the length or checksum is invalid
+         * @throws IOException if reading fails
+         */
+        static Record read(DataInputStream in) throws IOException
+        {
+            int first = in.read();
+            if (first < 0)
+            {
+                return null;
+            }
+            int length = (first << 24) | (in.readUnsignedByte() << 16) | in.readUnsignedShort();
+            if (length < Long.BYTES + 1 || length > MAX_LENGTH)
+            {
+                throw new StreamCorruptedException("Invalid record length " + length);
+            }
+            byte[] body = new byte[length];
+            in.readFully(body);
+            int checksum = in.readInt();
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum)
+            {
+                throw new StreamCorruptedException("Checksum mismatch");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(body);
+            long lsn = buffer.getLong();
+            byte type = buffer.get();
+            byte[] payload = new byte[buffer.remaining()];
+            buffer.get(payload);
+            return new Record(lsn, type, payload);
+        }
+
+        long encodedLength()
+        {
+            return Integer.BYTES + Long.BYTES + 1 + _payload.length + Integer.BYTES;
+        }
+    }
+}
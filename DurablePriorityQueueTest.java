@@ -0,0 +1,332 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class DurablePriorityQueueTest {
+
+    private static final DurablePriorityQueue.Codec<Integer> CODEC = new DurablePriorityQueue.Codec<Integer>() {
+        public void write(Integer element, DataOutput out) throws IOException {
+            out.writeInt(element);
+        }
+
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("durable-queue");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private DurablePriorityQueue<Integer> open(int batchSize, int checkpointInterval) throws IOException {
+        return new DurablePriorityQueue<>(directory, CODEC, batchSize, 0, checkpointInterval);
+    }
+
+    private static List<Integer> drain(PriorityQueue<Integer> queue) {
+        List<Integer> elements = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            elements.add(queue.remove());
+        }
+        return elements;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_NullElement_ShouldThrowIllegalArgumentException() throws IOException {
+        try (DurablePriorityQueue<Integer> queue = open(4, 0)) {
+            queue.add(null);
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void remove_OnEmpty_ShouldThrowNoSuchElementException() throws IOException {
+        try (DurablePriorityQueue<Integer> queue = open(4, 0)) {
+            queue.remove();
+        }
+    }
+
+    @Test
+    public void reopen_AfterClose_ShouldRecoverContentsAndLsn() throws IOException {
+        List<Integer> expected;
+        try (DurablePriorityQueue<Integer> queue = open(4, 0)) {
+            for (int value : new int[] {5, 3, 9, 1, 7}) {
+                queue.add(value);
+            }
+            queue.remove();
+            queue.add(4);
+            assertEquals(7, queue.lsn());
+            expected = List.of(3, 4, 5, 7, 9);
+        }
+        try (DurablePriorityQueue<Integer> queue = open(4, 0)) {
+            assertEquals(7, queue.lsn());
+            assertEquals(expected, drain(queue));
+        }
+    }
+
+    @Test
+    public void reopen_WithoutSync_ShouldLoseOnlyTheUncommittedBatch() throws IOException {
+        DurablePriorityQueue<Integer> crashed = open(100, 0);
+        crashed.add(1);
+        crashed.add(2);
+        crashed.sync();
+        crashed.add(3);
+        try (DurablePriorityQueue<Integer> recovered = open(100, 0)) {
+            assertEquals(2, recovered.lsn());
+            assertEquals(List.of(1, 2), drain(recovered));
+        }
+    }
+
+    @Test
+    public void checkpoint_ShouldTruncateLogAndRecoverFromCheckpointPlusTail() throws IOException {
+        Random random = new Random(42);
+        BinaryMinHeap<Integer> reference = new BinaryMinHeap<>();
+        try (DurablePriorityQueue<Integer> queue = open(8, 100)) {
+            for (int i = 0; i < 1050; i++) {
+                int value = random.nextInt(1000);
+                queue.add(value);
+                reference.add(value);
+                if (i % 3 == 0) {
+                    assertEquals(reference.remove(), queue.remove());
+                }
+            }
+            assertTrue("Checkpoints should have been written", Files.exists(directory.resolve("checkpoint")));
+        }
+        assertTrue("The log should only hold records since the last checkpoint",
+                Files.size(directory.resolve("wal.log")) < 100 * 17);
+        try (DurablePriorityQueue<Integer> queue = open(8, 100)) {
+            assertEquals(drain(reference), drain(queue));
+        }
+    }
+
+    @Test
+    public void reopen_WithTornTail_ShouldRecoverIntactRecordsAndCutTheRest() throws IOException {
+        try (DurablePriorityQueue<Integer> queue = open(1, 0)) {
+            queue.add(2);
+            queue.add(1);
+            queue.add(3);
+        }
+        Path log = directory.resolve("wal.log");
+        long intact = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(intact - 5);
+        }
+        try (DurablePriorityQueue<Integer> queue = open(1, 0)) {
+            assertEquals("Only the torn last record should be lost", 2, queue.lsn());
+            assertEquals(Integer.valueOf(1), queue.get());
+            queue.add(0);
+        }
+        try (DurablePriorityQueue<Integer> queue = open(1, 0)) {
+            assertEquals(List.of(0, 1, 2), drain(queue));
+        }
+    }
+
+    @Test
+    public void reopen_WithCorruptRecord_ShouldStopReplayAtIt() throws IOException {
+        try (DurablePriorityQueue<Integer> queue = open(1, 0)) {
+            queue.add(1);
+            queue.add(2);
+        }
+        Path log = directory.resolve("wal.log");
+        byte[] bytes = Files.readAllBytes(log);
+        bytes[bytes.length - 6] ^= 0x40;
+        Files.write(log, bytes);
+        try (DurablePriorityQueue<Integer> queue = open(1, 0)) {
+            assertEquals(1, queue.size());
+            assertEquals(1, queue.lsn());
+        }
+    }
+
+    @Test
+    public void follower_ShouldReplicateSnapshotAndCommittedRecords() throws Exception {
+        PipedInputStream in = new PipedInputStream(1 << 16);
+        PipedOutputStream out = new PipedOutputStream(in);
+        ReplicaPriorityQueue<Integer> replica = new ReplicaPriorityQueue<>(in, CODEC);
+        Thread follower = new Thread(replica);
+        follower.start();
+        Random random = new Random(7);
+        List<Integer> expected;
+        try (DurablePriorityQueue<Integer> queue = open(16, 0)) {
+            for (int i = 0; i < 100; i++) {
+                queue.add(random.nextInt(50));
+            }
+            queue.attachFollower(out);
+            for (int i = 0; i < 500; i++) {
+                if (random.nextBoolean()) {
+                    queue.add(random.nextInt(50));
+                } else {
+                    queue.remove();
+                }
+            }
+            queue.sync();
+            assertTrue("Replica should catch up", replica.awaitLsn(queue.lsn(), 5000));
+            assertEquals(queue.size(), replica.size());
+            assertEquals(queue.get(), replica.get());
+            BinaryMinHeap<Integer> promoted = replica.promote();
+            expected = drain(queue);
+            assertEquals(expected, drain(promoted));
+        }
+        follower.join(5000);
+        assertFalse(replica.isConnected());
+        assertNull(replica.failure());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void add_AfterClose_ShouldThrowIllegalStateException() throws IOException {
+        DurablePriorityQueue<Integer> queue = open(4, 0);
+        queue.close();
+        queue.add(1);
+    }
+
+    @Test
+    public void follower_Stalled_ShouldNotBlockTheQueueAndShouldBeDropped() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        OutputStream stalled = new OutputStream() {
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+
+            public void close() {
+                closed.countDown();
+            }
+        };
+        try (DurablePriorityQueue<Integer> queue = open(1, 0)) {
+            queue.attachFollower(stalled);
+            // One batch per add, more than the follower's buffer holds.
+            for (int i = 0; i < 1100; i++) {
+                queue.add(i);
+            }
+            queue.sync();
+            assertEquals("A stalled follower should not hold up the queue", 1100, queue.size());
+        }
+        release.countDown();
+        assertTrue("The dropped follower's stream should be closed", closed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void constructor_RecoveryFails_ShouldLeaveDirectoryReopenable() throws IOException {
+        try (DurablePriorityQueue<Integer> queue = open(1, 0)) {
+            queue.add(1);
+        }
+        DurablePriorityQueue.Codec<Integer> failing = new DurablePriorityQueue.Codec<Integer>() {
+            public void write(Integer element, DataOutput out) throws IOException {
+                out.writeInt(element);
+            }
+
+            public Integer read(DataInput in) {
+                throw new IllegalStateException("boom");
+            }
+        };
+        try {
+            new DurablePriorityQueue<>(directory, failing, 1, 0, 0);
+            fail("Recovery should have failed");
+        } catch (IllegalStateException expected) {
+            // The log channel must have been closed on the way out.
+        }
+        try (DurablePriorityQueue<Integer> queue = open(1, 0)) {
+            assertEquals(Integer.valueOf(1), queue.get());
+        }
+    }
+
+    @Test
+    public void add_CodecThrowing_ShouldLeaveHeapAndLogInStep() throws IOException {
+        DurablePriorityQueue.Codec<Integer> rejecting13 = new DurablePriorityQueue.Codec<Integer>() {
+            public void write(Integer element, DataOutput out) throws IOException {
+                if (element == 13) {
+                    throw new IllegalArgumentException("unlucky");
+                }
+                out.writeInt(element);
+            }
+
+            public Integer read(DataInput in) throws IOException {
+                return in.readInt();
+            }
+        };
+        try (DurablePriorityQueue<Integer> queue = new DurablePriorityQueue<>(directory, rejecting13, 1, 0, 0)) {
+            queue.add(5);
+            try {
+                queue.add(13);
+                fail("The codec should have rejected 13");
+            } catch (IllegalArgumentException expected) {
+                // The heap must not have taken the element.
+            }
+            queue.add(7);
+            assertEquals(Integer.valueOf(5), queue.remove());
+            assertEquals(1, queue.size());
+        }
+        try (DurablePriorityQueue<Integer> queue = open(1, 0)) {
+            assertEquals(List.of(7), drain(queue));
+        }
+    }
+
+    @Test
+    public void checkpoint_CodecThrowing_ShouldReportIOExceptionAndKeepQueueUsable() throws IOException {
+        boolean[] broken = new boolean[1];
+        DurablePriorityQueue.Codec<Integer> breakable = new DurablePriorityQueue.Codec<Integer>() {
+            public void write(Integer element, DataOutput out) throws IOException {
+                if (broken[0]) {
+                    throw new IllegalStateException("broken");
+                }
+                out.writeInt(element);
+            }
+
+            public Integer read(DataInput in) throws IOException {
+                return in.readInt();
+            }
+        };
+        try (DurablePriorityQueue<Integer> queue = new DurablePriorityQueue<>(directory, breakable, 1, 0, 0)) {
+            queue.add(2);
+            queue.add(1);
+            broken[0] = true;
+            try {
+                queue.checkpoint();
+                fail("The snapshot should not have encoded");
+            } catch (IOException expected) {
+                assertTrue(expected.getCause() instanceof IllegalStateException);
+            }
+            broken[0] = false;
+            queue.add(3);
+        }
+        try (DurablePriorityQueue<Integer> queue = open(1, 0)) {
+            assertEquals(List.of(1, 2, 3), drain(queue));
+        }
+    }
+}
@@ -0,0 +1,390 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.LongSupplier;
+
+/**
+ * A min-priority queue whose elements expire after a time-to-live.
+ * Expired elements are never returned by get() or remove().
+ *
+ * Elements are kept in two indexed binary heaps over the same entries, one by priority and
+ * one by expiry, and each entry remembers its position in both. Every operation reclaims at
+ * most a fixed number of expired entries from the top of the expiry heap, so expired elements
+ * are released steadily without any single call paying for a large backlog. Expired entries
+ * that reach the top of the priority heap are also dropped so they are never handed out.
+ * Reclaimed elements are passed to an optional EvictionListener once per operation, as a batch,
+ * except that get() and remove() report each budget's worth separately when they must clear
+ * a larger backlog from the top of the priority heap.
+ * size() and isEmpty() are plain reads: both count expired elements that have not been
+ * reclaimed yet, so get() and remove() can throw NoSuchElementException on a non-empty queue
+ * whose remaining elements have all expired. Call evictExpired() first for an exact view.
+ *
+ * Time comes from a caller-supplied clock, for example System::nanoTime, and TTLs use the same unit.
+ * This class is not thread-safe.
+ *
+ * @param <E> the type of elements in this queue
+ */
+public class ExpiringPriorityQueue<E extends Comparable<E>> implements PriorityQueue<E>
+{
+    private static final int DEFAULT = 10;
+    private static final int DEFAULT_EVICTION_BUDGET = 4;
+
+    private final LongSupplier _clock;
+    private final long _defaultTtl;
+    private final int _evictionBudget;
+    private final EvictionListener<E> _listener;
+    private final List<E> _evicted = new ArrayList<>();
+    private Entry<E>[] _byPriority;
+    private Entry<E>[] _byExpiry;
+    private int _size;
+
+    /**
+     * Receives elements that expired before they were removed.
+     *
+     * @param <E> the type of elements in the queue
+     */
+    public interface EvictionListener<E>
+    {
+        /**
+         * Called with the elements reclaimed during a single queue operation, or during each
+         * budget's worth of a long clearance by get() or remove().
+         *
+         * @param expired the expired elements, never empty
+         */
+        void onEviction(List<E> expired);
+    }
+
+    /**
+     * Constructs a new ExpiringPriorityQueue without an eviction listener.
+     *
+     * @param clock the source of the current time
+     * @param defaultTtl the time-to-live used by add(E)
+     * @throws IllegalArgumentException if clock is null or defaultTtl is negative
+     */
+    public ExpiringPriorityQueue(LongSupplier clock, long defaultTtl)
+    {
+        this(clock, defaultTtl, DEFAULT_EVICTION_BUDGET, null);
+    }
+
+    /**
+     * Constructs a new ExpiringPriorityQueue.
+     *
+     * @param clock the source of the current time
+     * @param defaultTtl the time-to-live used by add(E)
+     * @param evictionBudget the most expired entries to reclaim from the expiry index per operation
+     * @param listener the listener to notify of evicted elements, or null
+     * @throws IllegalArgumentException if clock is null, defaultTtl is negative or evictionBudget is less than 1
+     */
+    public ExpiringPriorityQueue(LongSupplier clock, long defaultTtl, int evictionBudget, EvictionListener<E> listener)
+    {
+        if (clock == null || defaultTtl < 0 || evictionBudget < 1)
+        {
+            throw new IllegalArgumentException();
+        }
+        _clock = clock;
+        _defaultTtl = defaultTtl;
+        _evictionBudget = evictionBudget;
+        _listener = listener;
+        _byPriority = (Entry<E>[]) new Entry[DEFAULT];
+        _byExpiry = (Entry<E>[]) new Entry[DEFAULT];
+    }
+
+    /**
+     * Adds the specified element with the default time-to-live.
+     *
+     * @param element the element to add to the queue
+     * @throws IllegalArgumentException if the element is null
+     */
+    public void add(E element)
+    {
+        add(element, _defaultTtl);
+    }
+
+    /**
+     * Adds the specified element with the given time-to-live.
+     *
+     * @param element the element to add to the queue
+     * @param ttl how long from now the element stays valid
+     * @throws IllegalArgumentException if the element is null or ttl is negative
+     */
+    public void add(E element, long ttl)
+    {
+        if (element == null)
+        {
+            throw new IllegalArgumentException("Cannot add null to the ExpiringPriorityQueue");
+        }
+        if (ttl < 0)
+        {
+            throw new IllegalArgumentException("TTL must not be negative");
+        }
+        long now = _clock.getAsLong();
+        _reclaim(now);
+        long expiry = now + ttl < now ? Long.MAX_VALUE : now + ttl;
+        if (_size == _byPriority.length)
+        {
+            _byPriority = Arrays.copyOf(_byPriority, _size * 2);
+            _byExpiry = Arrays.copyOf(_byExpiry, _size * 2);
+        }
+        Entry<E> entry = new Entry<>(element, expiry);
+        _set(_byPriority, _size, entry, false);
+        _set(_byExpiry, _size, entry, true);
+        _size++;
+        _siftUp(_byPriority, entry._priorityIndex, false);
+        _siftUp(_byExpiry, entry._expiryIndex, true);
+        _notifyListener();
+    }
+
+    /**
+     * Retrieves, without removing, the smallest element that has not expired.
+     *
+     * @return the smallest unexpired element
+     * @throws NoSuchElementException if no unexpired element remains
+     */
+    public E get()
+    {
+        _prepare();
+        if (_size == 0)
+        {
+            throw new NoSuchElementException();
+        }
+        return _byPriority[0]._element;
+    }
+
+    /**
+     * Retrieves and removes the smallest element that has not expired.
+     *
+     * @return the smallest unexpired element
+     * @throws NoSuchElementException if no unexpired element remains
+     */
+    public E remove()
+    {
+        _prepare();
+        if (_size == 0)
+        {
+            throw new NoSuchElementException();
+        }
+        Entry<E> entry = _byPriority[0];
+        _removeEntry(entry);
+        return entry._element;
+    }
+
+    /**
+     * Clears the queue without notifying the eviction listener.
+     */
+    public void clear()
+    {
+        Arrays.fill(_byPriority, null);
+        Arrays.fill(_byExpiry, null);
+        _evicted.clear();
+        _size = 0;
+    }
+
+    /**
+     * Returns the number of elements in the queue. This may include expired elements
+     * that have not been reclaimed yet; call evictExpired() first for an exact count.
+     * Like isEmpty(), this reclaims nothing and never notifies the listener.
+     *
+     * @return the number of elements
+     */
+    public int size()
+    {
+        return _size;
+    }
+
+    /**
+     * Returns _size == 0. Like size(), this counts expired elements that have not been
+     * reclaimed yet and reclaims nothing itself, so the two always agree.
+     * @return returns _size == 0
+     */
+    public boolean isEmpty()
+    {
+        return _size == 0;
+    }
+
+    /**
+     * Reclaims every expired element now, regardless of the per-operation budget.
+     *
+     * @return the number of elements reclaimed
+     */
+    public int evictExpired()
+    {
+        long now = _clock.getAsLong();
+        int evicted = 0;
+        while (_size > 0 && _byExpiry[0]._expiry <= now)
+        {
+            _evict(_byExpiry[0]);
+            evicted++;
+        }
+        _notifyListener();
+        return evicted;
+    }
+
+    /**
+     * Does the bounded reclamation for this operation, then drops expired entries from the
+     * top of the priority heap so the root is an unexpired element (or the queue is empty).
+     * The root is cleared within the same budget as _reclaim; only when more expired entries
+     * than that sit above every unexpired one does the call go on, a budget at a time,
+     * since handing out the expired root is never allowed. Each budget's worth is reported
+     * to the listener as its own batch.
+     */
+    private void _prepare()
+    {
+        long now = _clock.getAsLong();
+        _reclaim(now);
+        _notifyListener();
+        while (_size > 0 && _byPriority[0]._expiry <= now)
+        {
+            for (int i = 0; i < _evictionBudget && _size > 0 && _byPriority[0]._expiry <= now; i++)
+            {
+                _evict(_byPriority[0]);
+            }
+            _notifyListener();
+        }
+    }
+
+    /**
+     * Reclaims up to the eviction budget of expired entries from the top of the expiry heap.
+     *
+     * @param now the current time
+     */
+    private void _reclaim(long now)
+    {
+        for (int i = 0; i < _evictionBudget && _size > 0 && _byExpiry[0]._expiry <= now; i++)
+        {
+            _evict(_byExpiry[0]);
+        }
+    }
+
+    private void _evict(Entry<E> entry)
+    {
+        _removeEntry(entry);
+        if (_listener != null)
+        {
+            _evicted.add(entry._element);
+        }
+    }
+
+    private void _notifyListener()
+    {
+        if (_evicted.isEmpty())
+        {
+            return;
+        }
+        List<E> batch = new ArrayList<>(_evicted);
+        _evicted.clear();
+        _listener.onEviction(batch);
+    }
+
+    /**
+     * Removes an entry from both heaps in O(log n).
+     *
+     * @param entry the entry to remove
+     */
+    private void _removeEntry(Entry<E> entry)
+    {
+        _size--;
+        _removeAt(_byPriority, entry._priorityIndex, false);
+        _removeAt(_byExpiry, entry._expiryIndex, true);
+    }
+
+    /**
+     * Replaces the entry at the given index with the last entry of the heap and restores
+     * the heap property around it. Expects _size to already be decremented.
+     *
+     * @param heap the heap to remove from
+     * @param index the index of the entry to remove
+     * @param byExpiry true for the expiry heap, false for the priority heap
+     */
+    private void _removeAt(Entry<E>[] heap, int index, boolean byExpiry)
+    {
+        Entry<E> last = heap[_size];
+        heap[_size] = null;
+        if (index == _size)
+        {
+            return;
+        }
+        _set(heap, index, last, byExpiry);
+        _siftDown(heap, index, byExpiry);
+        if (heap[index] == last)
+        {
+            _siftUp(heap, index, byExpiry);
+        }
+    }
+
+    private void _siftUp(Entry<E>[] heap, int index, boolean byExpiry)
+    {
+        Entry<E> entry = heap[index];
+        while (index > 0)
+        {
+            int parentIndex = (index - 1) / 2;
+            Entry<E> parent = heap[parentIndex];
+            if (_compare(entry, parent, byExpiry) >= 0)
+            {
+                break;
+            }
+            _set(heap, index, parent, byExpiry);
+            index = parentIndex;
+        }
+        _set(heap, index, entry, byExpiry);
+    }
+
+    private void _siftDown(Entry<E>[] heap, int index, boolean byExpiry)
+    {
+        Entry<E> entry = heap[index];
+        int childIndex = 2 * index + 1;
+        while (childIndex < _size)
+        {
+            int smallestChild = childIndex;
+            if (childIndex + 1 < _size && _compare(heap[childIndex + 1], heap[childIndex], byExpiry) < 0)
+            {
+                smallestChild = childIndex + 1;
+            }
+            if (_compare(entry, heap[smallestChild], byExpiry) <= 0)
+            {
+                break;
+            }
+            _set(heap, index, heap[smallestChild], byExpiry);
+            index = smallestChild;
+            childIndex = 2 * index + 1;
+        }
+        _set(heap, index, entry, byExpiry);
+    }
+
+    private int _compare(Entry<E> a, Entry<E> b, boolean byExpiry)
+    {
+        return byExpiry ? Long.compare(a._expiry, b._expiry) : a._element.compareTo(b._element);
+    }
+
+    private void _set(Entry<E>[] heap, int index, Entry<E> entry, boolean byExpiry)
+    {
+        heap[index] = entry;
+        if (byExpiry)
+        {
+            entry._expiryIndex = index;
+        }
+        else
+        {
+            entry._priorityIndex = index;
+        }
+    }
+
+    /**
+     * An element with its expiry time and its position in each heap.
+     *
+     * @param <E> the type of the element
+     */
+    private static final class Entry<E extends Comparable<E>>
+    {
+        private final E _element;
+        private final long _expiry;
+        private int _priorityIndex;
+        private int _expiryIndex;
+
+        private Entry(E element, long expiry)
+        {
+            _element = element;
+            _expiry = expiry;
+        }
+    }
+}
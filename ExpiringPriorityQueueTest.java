@@ -0,0 +1,148 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class ExpiringPriorityQueueTest {
+
+    private long now;
+    private List<List<Integer>> evictions;
+    private ExpiringPriorityQueue<Integer> queue;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        evictions = new ArrayList<>();
+        queue = new ExpiringPriorityQueue<>(() -> now, 100, 2, evictions::add);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_NullElement_ShouldThrowIllegalArgumentException() {
+        queue.add(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_NegativeTtl_ShouldThrowIllegalArgumentException() {
+        queue.add(1, -1);
+    }
+
+    @Test
+    public void remove_BeforeExpiry_ShouldReturnPriorityOrder() {
+        queue.add(10);
+        queue.add(5);
+        queue.add(15);
+        assertEquals(Integer.valueOf(5), queue.remove());
+        assertEquals(Integer.valueOf(10), queue.remove());
+        assertEquals(Integer.valueOf(15), queue.remove());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void get_ExpiredRoot_ShouldBeSkipped() {
+        queue.add(1, 10);
+        queue.add(2, 50);
+        now = 10;
+        assertEquals("Expired elements should never be returned", Integer.valueOf(2), queue.get());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void remove_AllExpired_ShouldThrowNoSuchElementException() {
+        queue.add(1);
+        now = 100;
+        queue.remove();
+    }
+
+    @Test
+    public void isEmpty_AllExpired_ShouldAgreeWithSizeAndNotEvict() {
+        queue.add(1);
+        queue.add(2);
+        now = 200;
+        assertFalse("Expired elements count until they are reclaimed", queue.isEmpty());
+        assertEquals(2, queue.size());
+        assertTrue("isEmpty() should not notify the listener", evictions.isEmpty());
+        assertEquals(2, queue.evictExpired());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void remove_BacklogAboveBudget_ShouldEvictInBudgetSizedBatches() {
+        for (int i = 0; i < 7; i++) {
+            queue.add(i, 10);
+        }
+        queue.add(100, 1000);
+        now = 50;
+        assertEquals("Expired elements should never be returned", Integer.valueOf(100), queue.remove());
+        assertTrue(queue.isEmpty());
+        int evicted = 0;
+        for (List<Integer> batch : evictions) {
+            assertTrue("No batch should exceed the eviction budget", batch.size() <= 2);
+            evicted += batch.size();
+        }
+        assertEquals(7, evicted);
+    }
+
+    @Test
+    public void add_ShouldReclaimExpiredEntriesWithinBudget() {
+        for (int i = 0; i < 5; i++) {
+            queue.add(100 + i, 10);
+        }
+        now = 20;
+        queue.add(1, 100);
+        assertEquals("At most the budget of expired entries should be reclaimed per operation", 4, queue.size());
+        assertEquals("Evictions should be delivered as a single batch", 1, evictions.size());
+        assertEquals(2, evictions.get(0).size());
+    }
+
+    @Test
+    public void evictExpired_ShouldReclaimEverythingExpired() {
+        queue.add(3, 10);
+        queue.add(4, 10);
+        queue.add(5, 10);
+        queue.add(6, 100);
+        now = 10;
+        assertEquals(3, queue.evictExpired());
+        assertEquals(1, queue.size());
+        assertEquals(1, evictions.size());
+        assertEquals(3, evictions.get(0).size());
+    }
+
+    @Test
+    public void remove_MixedExpiries_ShouldKeepHeapsConsistent() {
+        for (int i = 0; i < 1000; i++) {
+            queue.add((i * 31) % 1000, (i * 17) % 200);
+        }
+        now = 100;
+        int previous = Integer.MIN_VALUE;
+        int removed = 0;
+        while (!queue.isEmpty()) {
+            int value;
+            try {
+                value = queue.remove();
+            } catch (NoSuchElementException e) {
+                break;
+            }
+            assertTrue("Remaining elements should come out in priority order", value >= previous);
+            previous = value;
+            removed++;
+        }
+        int evicted = 0;
+        for (List<Integer> batch : evictions) {
+            evicted += batch.size();
+        }
+        assertEquals("remove() should only fail once every expired element is cleared", 0, queue.size());
+        assertEquals("Every element should be either removed or evicted", 1000, removed + evicted);
+    }
+
+    @Test
+    public void clear_ShouldNotNotifyListener() {
+        queue.add(1, 10);
+        queue.clear();
+        now = 50;
+        assertTrue(queue.isEmpty());
+        assertTrue(evictions.isEmpty());
+    }
+}
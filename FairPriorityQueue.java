@@ -0,0 +1,291 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * A priority queue shared by many tenants, which hands out elements in priority order within
+ * each tenant and in weighted fair order between tenants, so that one tenant's flood of
+ * high-priority elements cannot starve the others.
+ *
+ * Each tenant with queued elements has its own BinaryMinHeap. Tenants are scheduled by
+ * self-clocked fair queueing: every tenant carries a virtual start and finish tag for its next
+ * element, where finish = start + 1 / weight, and a scheduler BinaryMinHeap of tenants
+ * orders them by finish tag. remove() serves the tenant with the smallest finish tag, advances
+ * the queue's virtual time to that tenant's finish tag and moves the tenant's tags on by one
+ * element. A tenant that becomes active starts at the later of the current virtual time and
+ * the finish tag it had when it last emptied, so it is served after at most about
+ * (total weight / its weight) elements from the others, however deep their heaps are, and a
+ * tenant that empties and refills in a closed loop gains nothing by it. Over any busy period,
+ * tenants receive elements in proportion to their weights.
+ *
+ * remove() costs O(log tenants + log n). A tenant is dropped from the scheduler as soon as
+ * its heap is empty, keeping only its weight and its last finish tag. Finish tags that the
+ * virtual time has passed no longer matter and are pruned whenever their number doubles,
+ * and all of them are forgotten when the queue empties.
+ *
+ * @param <E> the type of elements in this queue
+ * @param <T> the type identifying tenants, which must implement equals and hashCode
+ */
+public class FairPriorityQueue<E extends Comparable<E>, T> implements PriorityQueue<E>
+{
+    private static final double DEFAULT_WEIGHT = 1.0;
+    private static final int DEFAULT_PRUNE = 64;
+
+    private final Function<? super E, ? extends T> _tenantOf;
+    private final Map<T, Tenant<E, T>> _tenants = new HashMap<>();
+    private final Map<T, Double> _weights = new HashMap<>();
+    private final Map<T, Double> _lastFinish = new HashMap<>();
+    private final BinaryMinHeap<Tenant<E, T>> _scheduler = new BinaryMinHeap<>();
+    private double _virtualTime;
+    private long _activations;
+    private int _size;
+    private int _pruneAt = DEFAULT_PRUNE;
+
+    /**
+     * Constructs a new FairPriorityQueue.
+     *
+     * @param tenantOf a function returning the tenant an element belongs to
+     * @throws IllegalArgumentException if tenantOf is null
+     */
+    public FairPriorityQueue(Function<? super E, ? extends T> tenantOf)
+    {
+        if (tenantOf == null)
+        {
+            throw new IllegalArgumentException();
+        }
+        _tenantOf = tenantOf;
+    }
+
+    /**
+     * Sets a tenant's share of the queue relative to other tenants; the default is 1.
+     * A change takes effect from the tenant's next element.
+     *
+     * @param tenant the tenant
+     * @param weight the tenant's weight
+     * @throws IllegalArgumentException if tenant is null or weight is not positive and finite
+     */
+    public void setWeight(T tenant, double weight)
+    {
+        if (tenant == null || !(weight > 0) || Double.isInfinite(weight))
+        {
+            throw new IllegalArgumentException();
+        }
+        _weights.put(tenant, weight);
+        Tenant<E, T> state = _tenants.get(tenant);
+        if (state != null)
+        {
+            state._weight = weight;
+        }
+    }
+
+    /**
+     * Returns a tenant's weight.
+     *
+     * @param tenant the tenant
+     * @return the weight set with setWeight(), or 1
+     */
+    public double weight(T tenant)
+    {
+        return _weights.getOrDefault(tenant, DEFAULT_WEIGHT);
+    }
+
+    /**
+     * Adds the specified element to its tenant's heap, activating the tenant if it had none queued.
+     *
+     * @param element the element to add to the queue
+     * @throws IllegalArgumentException if the element is null or has no tenant
+     */
+    public void add(E element)
+    {
+        if (element == null)
+        {
+            throw new IllegalArgumentException("Cannot add null to the FairPriorityQueue");
+        }
+        T tenant = _tenantOf.apply(element);
+        if (tenant == null)
+        {
+            throw new IllegalArgumentException("Element has no tenant");
+        }
+        Tenant<E, T> state = _tenants.get(tenant);
+        if (state == null)
+        {
+            state = new Tenant<>(tenant, weight(tenant), _activations++);
+            Double lastFinish = _lastFinish.remove(tenant);
+            state._start = lastFinish == null ? _virtualTime : Math.max(_virtualTime, lastFinish);
+            state._finish = state._start + 1 / state._weight;
+            _tenants.put(tenant, state);
+            _scheduler.add(state);
+        }
+        state._heap.add(element);
+        _size++;
+    }
+
+    /**
+     * Retrieves, without removing, the element remove() would return next.
+     *
+     * @return the next element
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public E get()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        return _scheduler.get()._heap.get();
+    }
+
+    /**
+     * Retrieves and removes the smallest element of the tenant whose turn it is.
+     *
+     * @return the next element
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public E remove()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        Tenant<E, T> state = _scheduler.get();
+        E element = state._heap.remove();
+        _size--;
+        _virtualTime = state._finish;
+        if (state._heap.isEmpty())
+        {
+            _scheduler.remove();
+            _tenants.remove(state._id);
+            _retire(state);
+        }
+        else
+        {
+            state._start = state._finish;
+            state._finish = state._start + 1 / state._weight;
+            // The tenant is still the scheduler's root; replace() sifts it down under its new tag.
+            _scheduler.replace(state);
+        }
+        return element;
+    }
+
+    /**
+     * Clears the queue, removing all elements and tenants but keeping their weights.
+     */
+    public void clear()
+    {
+        _tenants.clear();
+        _scheduler.clear();
+        _lastFinish.clear();
+        _pruneAt = DEFAULT_PRUNE;
+        _virtualTime = 0;
+        _size = 0;
+    }
+
+    /**
+     * Returns the number of elements in the queue.
+     *
+     * @return the number of elements
+     */
+    public int size()
+    {
+        return _size;
+    }
+
+    /**
+     * Returns _size == 0
+     * @return returns _size == 0
+     */
+    public boolean isEmpty()
+    {
+        return _size == 0;
+    }
+
+    /**
+     * Returns the number of elements a tenant has queued.
+     *
+     * @param tenant the tenant
+     * @return the tenant's queue depth, or 0 if it has nothing queued
+     */
+    public int depth(T tenant)
+    {
+        Tenant<E, T> state = _tenants.get(tenant);
+        return state == null ? 0 : state._heap.size();
+    }
+
+    /**
+     * Returns the queue depth of every tenant with elements queued.
+     *
+     * @return a new map from tenant to depth
+     */
+    public Map<T, Integer> depths()
+    {
+        Map<T, Integer> depths = new HashMap<>();
+        for (Tenant<E, T> state : _tenants.values())
+        {
+            depths.put(state._id, state._heap.size());
+        }
+        return depths;
+    }
+
+    /**
+     * Returns the number of tenants with elements queued.
+     *
+     * @return the number of active tenants
+     */
+    public int activeTenants()
+    {
+        return _tenants.size();
+    }
+
+    /**
+     * Remembers the finish tag of a tenant whose heap has just emptied, so that refilling it
+     * straight away does not start it afresh at the virtual time.
+     *
+     * @param state the tenant that emptied
+     */
+    private void _retire(Tenant<E, T> state)
+    {
+        if (_size == 0)
+        {
+            // The busy period is over, and with it every tenant's claim to earlier service.
+            _lastFinish.clear();
+            _pruneAt = DEFAULT_PRUNE;
+            return;
+        }
+        _lastFinish.put(state._id, state._finish);
+        if (_lastFinish.size() >= _pruneAt)
+        {
+            _lastFinish.values().removeIf(finish -> finish <= _virtualTime);
+            _pruneAt = Math.max(DEFAULT_PRUNE, _lastFinish.size() * 2);
+        }
+    }
+
+    /**
+     * A tenant's heap and its virtual tags, ordered by finish tag and then by activation order.
+     *
+     * @param <E> the type of elements
+     * @param <T> the type identifying tenants
+     */
+    private static final class Tenant<E extends Comparable<E>, T> implements Comparable<Tenant<E, T>>
+    {
+        private final T _id;
+        private final long _sequence;
+        private final BinaryMinHeap<E> _heap = new BinaryMinHeap<>();
+        private double _weight;
+        private double _start;
+        private double _finish;
+
+        private Tenant(T id, double weight, long sequence)
+        {
+            _id = id;
+            _weight = weight;
+            _sequence = sequence;
+        }
+
+        public int compareTo(Tenant<E, T> other)
+        {
+            int result = Double.compare(_finish, other._finish);
+            return result != 0 ? result : Long.compare(_sequence, other._sequence);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+public class FairPriorityQueueTest {
+
+    /**
+     * A job for a tenant; smaller priorities come first within a tenant.
+     */
+    private static final class Job implements Comparable<Job> {
+        private final String tenant;
+        private final int priority;
+
+        private Job(String tenant, int priority) {
+            this.tenant = tenant;
+            this.priority = priority;
+        }
+
+        public int compareTo(Job other) {
+            return Integer.compare(priority, other.priority);
+        }
+    }
+
+    private FairPriorityQueue<Job, String> queue;
+
+    @Before
+    public void setUp() {
+        queue = new FairPriorityQueue<>(job -> job.tenant);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_NullElement_ShouldThrowIllegalArgumentException() {
+        queue.add(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_NullTenant_ShouldThrowIllegalArgumentException() {
+        queue.add(new Job(null, 1));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void remove_OnEmpty_ShouldThrowNoSuchElementException() {
+        queue.remove();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setWeight_Zero_ShouldThrowIllegalArgumentException() {
+        queue.setWeight("a", 0);
+    }
+
+    @Test
+    public void remove_SingleTenant_ShouldFollowPriorityOrder() {
+        queue.add(new Job("a", 3));
+        queue.add(new Job("a", 1));
+        queue.add(new Job("a", 2));
+        assertEquals(1, queue.get().priority);
+        assertEquals(1, queue.remove().priority);
+        assertEquals(2, queue.remove().priority);
+        assertEquals(3, queue.remove().priority);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void remove_FloodingTenant_ShouldNotStarveOthers() {
+        for (int i = 0; i < 1000; i++) {
+            queue.add(new Job("flood", 0));
+        }
+        for (int i = 0; i < 5; i++) {
+            queue.add(new Job("quiet", 100 + i));
+        }
+        int quietServed = 0;
+        for (int i = 0; i < 10; i++) {
+            if (queue.remove().tenant.equals("quiet")) {
+                quietServed++;
+            }
+        }
+        assertEquals("Equal weights should alternate between tenants", 5, quietServed);
+    }
+
+    @Test
+    public void remove_LateArrival_ShouldBeServedPromptly() {
+        for (int i = 0; i < 1000; i++) {
+            queue.add(new Job("flood", i));
+        }
+        for (int i = 0; i < 500; i++) {
+            queue.remove();
+        }
+        queue.add(new Job("late", 0));
+        String first = queue.remove().tenant;
+        String second = queue.remove().tenant;
+        assertTrue("A newly active tenant should not wait behind the backlog",
+                first.equals("late") || second.equals("late"));
+    }
+
+    @Test
+    public void remove_Weights_ShouldShareInProportion() {
+        queue.setWeight("gold", 3);
+        for (int i = 0; i < 1000; i++) {
+            queue.add(new Job("gold", i));
+            queue.add(new Job("bronze", i));
+        }
+        Map<String, Integer> served = new HashMap<>();
+        for (int i = 0; i < 400; i++) {
+            served.merge(queue.remove().tenant, 1, Integer::sum);
+        }
+        assertEquals(300, served.get("gold"), 1);
+        assertEquals(100, served.get("bronze"), 1);
+    }
+
+    @Test
+    public void depth_ShouldTrackPerTenantSizesAndDropEmptyTenants() {
+        queue.add(new Job("a", 1));
+        queue.add(new Job("a", 2));
+        queue.add(new Job("b", 1));
+        assertEquals(2, queue.depth("a"));
+        assertEquals(1, queue.depth("b"));
+        assertEquals(0, queue.depth("c"));
+        assertEquals(2, queue.activeTenants());
+        assertEquals(Integer.valueOf(2), queue.depths().get("a"));
+        queue.remove();
+        queue.remove();
+        assertEquals(1, queue.activeTenants());
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void clear_ShouldRemoveTenantsButKeepWeights() {
+        queue.setWeight("a", 2);
+        queue.add(new Job("a", 1));
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.activeTenants());
+        assertEquals(2, queue.weight("a"), 0);
+    }
+
+    @Test
+    public void remove_ClosedLoopTenant_ShouldGetOnlyItsShareOnReactivation() {
+        for (int i = 0; i < 100; i++) {
+            queue.add(new Job("flood", i));
+        }
+        queue.add(new Job("loop", 0));
+        int loopServed = 0;
+        for (int i = 0; i < 50; i++) {
+            Job job = queue.remove();
+            if (job.tenant.equals("loop")) {
+                loopServed++;
+                // The tenant empties, then submits its next job as soon as the last one is served.
+                queue.add(new Job("loop", 0));
+            }
+        }
+        assertTrue("A tenant that empties and refills should get half the elements, got " + loopServed + " of 50",
+                loopServed >= 24 && loopServed <= 26);
+    }
+}
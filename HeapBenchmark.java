@@ -0,0 +1,549 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Simple wall-clock benchmarks for the priority queue implementations in this project.
+ * Run with: java HeapBenchmark [scenario]
+ *
+ * Each scenario is run a few times to let the JIT warm up before the reported run.
+ * The numbers are indicative only; use JMH for anything that needs to be precise.
+ */
+public class HeapBenchmark
+{
+    private static final int WARMUP_RUNS = 3;
+
+    public static void main(String[] args)
+    {
+        String scenario = args.length > 0 ? args[0] : "all";
+        if (scenario.equals("all") || scenario.equals("timeouts"))
+        {
+            timeouts();
+        }
+        if (scenario.equals("all") || scenario.equals("sort"))
+        {
+            sort();
+        }
+        if (scenario.equals("all") || scenario.equals("removal"))
+        {
+            removal();
+        }
+        if (scenario.equals("all") || scenario.equals("dary"))
+        {
+            dary();
+        }
+        if (scenario.equals("all") || scenario.equals("layout"))
+        {
+            layout();
+        }
+        if (scenario.equals("all") || scenario.equals("topk"))
+        {
+            topk();
+        }
+        if (scenario.equals("all") || scenario.equals("adaptive"))
+        {
+            adaptive();
+        }
+        if (scenario.equals("all") || scenario.equals("durable"))
+        {
+            durable();
+        }
+    }
+
+    /**
+     * Schedules a million timeouts spread over ten seconds of millisecond ticks, cancels
+     * nine in ten of them before they fire, and expires the rest. Compares TimingWheel with
+     * a BinaryMinHeap keyed by deadline that discards cancelled entries when they reach the root.
+     */
+    static void timeouts()
+    {
+        final int count = 1_000_000;
+        final int horizon = 10_000;
+        System.out.println("timeouts: " + count + " scheduled, 90% cancelled");
+        for (int run = 0; run <= WARMUP_RUNS; run++)
+        {
+            long wheel = _timeWheel(count, horizon);
+            long heap = _timeHeap(count, horizon);
+            if (run == WARMUP_RUNS)
+            {
+                _report("TimingWheel", count, wheel);
+                _report("BinaryMinHeap", count, heap);
+            }
+        }
+    }
+
+    /**
+     * Drains a two-million element heap in sorted order through iterator(), then with
+     * toSortedArray() and heapify() on pools of 1, 2, 4, ... up to the number of cores.
+     */
+    static void sort()
+    {
+        final int count = 2_000_000;
+        Random random = new Random(42);
+        Integer[] input = new Integer[count];
+        for (int i = 0; i < count; i++)
+        {
+            input[i] = random.nextInt();
+        }
+        BinaryMinHeap<Integer> heap = BinaryMinHeap.heapify(input);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("sort: " + count + " elements, " + cores + " cores");
+        for (int run = 0; run <= WARMUP_RUNS; run++)
+        {
+            long start = System.nanoTime();
+            Iterator<Integer> iterator = heap.iterator();
+            while (iterator.hasNext())
+            {
+                iterator.next();
+            }
+            long drain = System.nanoTime() - start;
+            if (run == WARMUP_RUNS)
+            {
+                _report("iterator() drain", count, drain);
+            }
+        }
+        for (int threads = 1; threads <= cores; threads *= 2)
+        {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long sorted = 0;
+            long built = 0;
+            for (int run = 0; run <= WARMUP_RUNS; run++)
+            {
+                long start = System.nanoTime();
+                heap.toSortedArray(pool);
+                sorted = System.nanoTime() - start;
+                start = System.nanoTime();
+                BinaryMinHeap.heapify(input, pool);
+                built = System.nanoTime() - start;
+            }
+            _report("toSortedArray x" + threads, count, sorted);
+            _report("heapify x" + threads, count, built);
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Fills a heap with a million composite keys whose compareTo walks three fields,
+     * then drains it with each RemovalStrategy, reporting compareTo calls per remove()
+     * from an instrumented run and throughput from an uninstrumented one.
+     */
+    static void removal()
+    {
+        final int count = 1_000_000;
+        Random random = new Random(42);
+        CompositeKey[] input = new CompositeKey[count];
+        for (int i = 0; i < count; i++)
+        {
+            input[i] = new CompositeKey("tenant-" + random.nextInt(4), random.nextInt(16), random.nextLong());
+        }
+        System.out.println("removal: " + count + " composite keys");
+        for (BinaryMinHeap.RemovalStrategy strategy : BinaryMinHeap.RemovalStrategy.values())
+        {
+            HeapMetrics metrics = new HeapMetrics();
+            BinaryMinHeap<CompositeKey> instrumented = new BinaryMinHeap<>(count, metrics);
+            instrumented.setRemovalStrategy(strategy);
+            for (CompositeKey key : input)
+            {
+                instrumented.add(key);
+            }
+            metrics.reset();
+            while (!instrumented.isEmpty())
+            {
+                instrumented.remove();
+            }
+            long nanos = 0;
+            for (int run = 0; run <= WARMUP_RUNS; run++)
+            {
+                BinaryMinHeap<CompositeKey> heap = BinaryMinHeap.heapify(input);
+                heap.setRemovalStrategy(strategy);
+                long start = System.nanoTime();
+                while (!heap.isEmpty())
+                {
+                    heap.remove();
+                }
+                nanos = System.nanoTime() - start;
+            }
+            _report(strategy + " remove()", count, nanos);
+            System.out.printf("  %-24s %8.1f compareTo/remove%n", "", metrics.snapshot().removeComparisons().mean());
+        }
+    }
+
+    /**
+     * Adds four million random long keys and removes them all, comparing LongDaryHeap at
+     * arities 2, 8 and 16 with a BinaryMinHeap of boxed Longs.
+     */
+    static void dary()
+    {
+        final int count = 4_000_000;
+        Random random = new Random(42);
+        long[] keys = new long[count];
+        Long[] boxed = new Long[count];
+        for (int i = 0; i < count; i++)
+        {
+            keys[i] = random.nextLong();
+            boxed[i] = keys[i];
+        }
+        System.out.println("dary: " + count + " long keys, add then remove all");
+        long nanos = 0;
+        for (int run = 0; run <= WARMUP_RUNS; run++)
+        {
+            BinaryMinHeap<Long> heap = new BinaryMinHeap<>();
+            long start = System.nanoTime();
+            for (Long key : boxed)
+            {
+                heap.add(key);
+            }
+            while (!heap.isEmpty())
+            {
+                heap.remove();
+            }
+            nanos = System.nanoTime() - start;
+        }
+        _report("BinaryMinHeap<Long>", count, nanos);
+        for (int arity : new int[] {2, 8, 16})
+        {
+            for (int run = 0; run <= WARMUP_RUNS; run++)
+            {
+                LongDaryHeap heap = new LongDaryHeap(arity);
+                long start = System.nanoTime();
+                for (long key : keys)
+                {
+                    heap.add(key);
+                }
+                while (!heap.isEmpty())
+                {
+                    heap.remove();
+                }
+                nanos = System.nanoTime() - start;
+            }
+            _report("LongDaryHeap d=" + arity, count, nanos);
+        }
+    }
+
+    /**
+     * Runs the classic hold model (remove the minimum, add a new element) on a heap of
+     * eight million elements, comparing BinaryMinHeap with BlockedBinaryHeap using
+     * cache-line-sized and memory-page-sized pages. Run under perf stat to see the
+     * cache and TLB miss counts behind the timings.
+     */
+    static void layout()
+    {
+        final int count = 8_000_000;
+        final int operations = 2_000_000;
+        Random random = new Random(42);
+        Integer[] input = new Integer[count + operations];
+        for (int i = 0; i < input.length; i++)
+        {
+            input[i] = random.nextInt();
+        }
+        System.out.println("layout: hold model on " + count + " elements, " + operations + " remove+add");
+        _report("BinaryMinHeap", operations, _timeHold(new BinaryMinHeap<>(), input, count));
+        _report("BlockedBinaryHeap 64B", operations, _timeHold(new BlockedBinaryHeap<>(4), input, count));
+        _report("BlockedBinaryHeap 4KiB", operations, _timeHold(new BlockedBinaryHeap<>(10), input, count));
+    }
+
+    /**
+     * Selects the thousand largest of twenty million random Integers, first by feeding every
+     * element through one BinaryMinHeap bounded with remove() and add(), then with TopK on
+     * pools of 1, 2, 4, ... up to the number of cores.
+     */
+    static void topk()
+    {
+        final int count = 20_000_000;
+        final int k = 1000;
+        Random random = new Random(42);
+        Integer[] input = new Integer[count];
+        for (int i = 0; i < count; i++)
+        {
+            input[i] = random.nextInt();
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("topk: k=" + k + " of " + count + " elements, " + cores + " cores");
+        long nanos = 0;
+        for (int run = 0; run <= WARMUP_RUNS; run++)
+        {
+            long start = System.nanoTime();
+            BinaryMinHeap<Integer> heap = new BinaryMinHeap<>();
+            for (Integer element : input)
+            {
+                heap.add(element);
+                if (heap.size() > k)
+                {
+                    heap.remove();
+                }
+            }
+            nanos = System.nanoTime() - start;
+        }
+        _report("BinaryMinHeap add+remove", count, nanos);
+        for (int threads = 1; threads <= cores; threads *= 2)
+        {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            for (int run = 0; run <= WARMUP_RUNS; run++)
+            {
+                long start = System.nanoTime();
+                TopK.largest(k, input, pool);
+                nanos = System.nanoTime() - start;
+            }
+            _report("TopK x" + threads, count, nanos);
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Times a sorted array against a BinaryMinHeap at small sizes, to validate the limits
+     * AdaptivePriorityQueue switches at: filling an empty queue to n elements, draining it,
+     * and the hold model at size n. AdaptivePriorityQueue itself is timed alongside.
+     * The layout scenario is why there is no tier beyond BinaryMinHeap.
+     */
+    static void adaptive()
+    {
+        final int operations = 4_000_000;
+        Random random = new Random(42);
+        System.out.println("adaptive: sorted array vs BinaryMinHeap, ns per add / remove / hold");
+        for (int n = 8; n <= 2048; n *= 4)
+        {
+            Integer[] input = new Integer[n + operations];
+            for (int i = 0; i < input.length; i++)
+            {
+                input[i] = random.nextInt();
+            }
+            int size = n;
+            String sorted = _timeCycles(() -> new AdaptivePriorityQueue<>(Integer.MAX_VALUE, false),
+                    input, size, operations);
+            String heap = _timeCycles(() -> new BinaryMinHeap<>(), input, size, operations);
+            String adaptive = _timeCycles(() -> new AdaptivePriorityQueue<>(), input, size, operations);
+            System.out.printf("  n=%-4d sorted %s   heap %s   adaptive %s%n", n, sorted, heap, adaptive);
+        }
+    }
+
+    /**
+     * Fills fresh queues to size elements and drains them until operations elements have
+     * passed through, then runs the hold model on one queue of that size.
+     *
+     * @return the three timings in ns per operation, formatted for printing
+     */
+    private static String _timeCycles(Supplier<PriorityQueue<Integer>> factory, Integer[] input, int size,
+                                      int operations)
+    {
+        long fill = 0;
+        long drain = 0;
+        for (int run = 0; run <= WARMUP_RUNS; run++)
+        {
+            fill = 0;
+            drain = 0;
+            for (int offset = 0; offset + size <= operations; offset += size)
+            {
+                PriorityQueue<Integer> queue = factory.get();
+                long start = System.nanoTime();
+                for (int i = offset; i < offset + size; i++)
+                {
+                    queue.add(input[i]);
+                }
+                long filled = System.nanoTime();
+                while (!queue.isEmpty())
+                {
+                    queue.remove();
+                }
+                drain += System.nanoTime() - filled;
+                fill += filled - start;
+            }
+        }
+        long hold = _timeHold(factory.get(), input, size);
+        return String.format("%5.1f /%5.1f /%5.1f", (double) fill / operations, (double) drain / operations,
+                (double) hold / operations);
+    }
+
+    /**
+     * Adds and removes Integers through a DurablePriorityQueue in a temporary directory with
+     * group commits of 1, 8, 64 and 512 records, reporting throughput and commits per second.
+     * The figures depend almost entirely on how long the file system takes to force a write.
+     */
+    static void durable()
+    {
+        DurablePriorityQueue.Codec<Integer> codec = new DurablePriorityQueue.Codec<Integer>()
+        {
+            public void write(Integer element, DataOutput out) throws IOException
+            {
+                out.writeInt(element);
+            }
+
+            public Integer read(DataInput in) throws IOException
+            {
+                return in.readInt();
+            }
+        };
+        Random random = new Random(42);
+        System.out.println("durable: add+remove through the write-ahead log, fsync per group commit");
+        for (int batchSize = 1; batchSize <= 512; batchSize *= 8)
+        {
+            int operations = Math.min(200_000, 2_000 * batchSize);
+            long nanos = 0;
+            for (int run = 0; run <= WARMUP_RUNS; run++)
+            {
+                try
+                {
+                    Path directory = Files.createTempDirectory("heap-benchmark");
+                    DurablePriorityQueue<Integer> queue = new DurablePriorityQueue<>(directory, codec, batchSize, 0, 0);
+                    long start = System.nanoTime();
+                    for (int i = 0; i < operations; i += 2)
+                    {
+                        queue.add(random.nextInt());
+                        queue.add(random.nextInt());
+                        queue.remove();
+                    }
+                    queue.sync();
+                    nanos = System.nanoTime() - start;
+                    queue.close();
+                    Files.delete(directory.resolve("wal.log"));
+                    Files.delete(directory);
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int records = operations / 2 * 3;
+            _report("batch " + batchSize, records, nanos);
+            System.out.printf("  %-24s %8.0f records/s  %8.0f commits/s%n", "", records / (nanos / 1e9),
+                    Math.ceil((double) records / batchSize) / (nanos / 1e9));
+        }
+    }
+
+    private static long _timeHold(PriorityQueue<Integer> queue, Integer[] input, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            queue.add(input[i]);
+        }
+        long nanos = 0;
+        for (int run = 0; run <= WARMUP_RUNS; run++)
+        {
+            long start = System.nanoTime();
+            for (int i = count; i < input.length; i++)
+            {
+                Integer min = queue.remove();
+                queue.add(input[i] > min ? input[i] : min);
+            }
+            nanos = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private static long _timeWheel(int count, int horizon)
+    {
+        Random random = new Random(42);
+        TimingWheel<Integer> wheel = new TimingWheel<>();
+        TimingWheel.Timeout<Integer>[] handles = new TimingWheel.Timeout[count];
+        long start = System.nanoTime();
+        long now = 0;
+        for (int i = 0; i < count; i++)
+        {
+            handles[i] = wheel.schedule(i, now + 1 + random.nextInt(horizon));
+            if (i % 10 != 0)
+            {
+                handles[i].cancel();
+            }
+            if (i % 100 == 0)
+            {
+                now++;
+                while (wheel.poll(now) != null)
+                {
+                }
+            }
+        }
+        now += horizon + 1;
+        while (wheel.poll(now) != null)
+        {
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long _timeHeap(int count, int horizon)
+    {
+        Random random = new Random(42);
+        BinaryMinHeap<HeapTimeout> heap = new BinaryMinHeap<>();
+        HeapTimeout[] handles = new HeapTimeout[count];
+        long start = System.nanoTime();
+        long now = 0;
+        for (int i = 0; i < count; i++)
+        {
+            handles[i] = new HeapTimeout(now + 1 + random.nextInt(horizon));
+            heap.add(handles[i]);
+            if (i % 10 != 0)
+            {
+                handles[i]._cancelled = true;
+            }
+            if (i % 100 == 0)
+            {
+                now++;
+                while (!heap.isEmpty() && (heap.get()._cancelled || heap.get()._deadline <= now))
+                {
+                    heap.remove();
+                }
+            }
+        }
+        while (!heap.isEmpty())
+        {
+            heap.remove();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void _report(String name, int operations, long nanos)
+    {
+        System.out.printf("  %-24s %8.1f ms  %8.1f ns/op%n", name, nanos / 1e6, (double) nanos / operations);
+    }
+
+    /**
+     * A key ordered by three fields, standing in for an expensive composite compareTo.
+     */
+    private static final class CompositeKey implements Comparable<CompositeKey>
+    {
+        private final String _tenant;
+        private final int _priority;
+        private final long _sequence;
+
+        private CompositeKey(String tenant, int priority, long sequence)
+        {
+            _tenant = tenant;
+            _priority = priority;
+            _sequence = sequence;
+        }
+
+        public int compareTo(CompositeKey other)
+        {
+            int result = _tenant.compareTo(other._tenant);
+            if (result != 0)
+            {
+                return result;
+            }
+            result = Integer.compare(_priority, other._priority);
+            return result != 0 ? result : Long.compare(_sequence, other._sequence);
+        }
+    }
+
+    /**
+     * A deadline with a cancelled flag, as a BinaryMinHeap-based timer would store it.
+     */
+    private static final class HeapTimeout implements Comparable<HeapTimeout>
+    {
+        private final long _deadline;
+        private boolean _cancelled;
+
+        private HeapTimeout(long deadline)
+        {
+            _deadline = deadline;
+        }
+
+        public int compareTo(HeapTimeout other)
+        {
+            return Long.compare(_deadline, other._deadline);
+        }
+    }
+}
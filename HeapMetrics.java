@@ -0,0 +1,347 @@
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Collects runtime statistics for an instrumented BinaryMinHeap.
+ * A heap only records into a HeapMetrics when one is passed to its constructor,
+ * so heaps built without one pay nothing beyond a null check.
+ *
+ * Recorded values are comparisons per operation, sift depths, resize events
+ * and the bytes they copied, the size high-water mark, and add/remove latency.
+ * Distributions are kept in LatencyHistograms, which are exact below 128.
+ * Resizes and operations are also emitted as JFR events while a recording is active.
+ *
+ * Like BinaryMinHeap itself, a HeapMetrics is not thread-safe.
+ */
+public class HeapMetrics
+{
+    /**
+     * Size of one element reference, used to report resize copy volume:
+     * 4 bytes with compressed oops or on a 32-bit JVM, 8 bytes otherwise.
+     */
+    private static final int REFERENCE_BYTES = _referenceBytes();
+
+    private final LatencyHistogram _addComparisons = new LatencyHistogram();
+    private final LatencyHistogram _removeComparisons = new LatencyHistogram();
+    private final LatencyHistogram _siftUpDepth = new LatencyHistogram();
+    private final LatencyHistogram _siftDownDepth = new LatencyHistogram();
+    private final LatencyHistogram _addLatency = new LatencyHistogram();
+    private final LatencyHistogram _removeLatency = new LatencyHistogram();
+    private long _resizeCount;
+    private long _bytesCopied;
+    private int _highWaterMark;
+
+    private long _comparisons;
+    private long _operationStart;
+
+    /**
+     * Marks the start of an add or remove so its comparisons and latency can be attributed to it.
+     */
+    void beginOperation()
+    {
+        _comparisons = 0;
+        _operationStart = System.nanoTime();
+    }
+
+    /**
+     * Records the end of an add.
+     *
+     * @param size the size of the heap after the add
+     */
+    void endAdd(int size)
+    {
+        long latency = System.nanoTime() - _operationStart;
+        _addComparisons.record(_comparisons);
+        _addLatency.record(latency);
+        if (size > _highWaterMark)
+        {
+            _highWaterMark = size;
+        }
+        _commitOperation("add", size, latency);
+    }
+
+    /**
+     * Records the end of a remove.
+     *
+     * @param size the size of the heap after the remove
+     */
+    void endRemove(int size)
+    {
+        long latency = System.nanoTime() - _operationStart;
+        _removeComparisons.record(_comparisons);
+        _removeLatency.record(latency);
+        _commitOperation("remove", size, latency);
+    }
+
+    /**
+     * Counts a single compareTo call.
+     */
+    void comparison()
+    {
+        _comparisons++;
+    }
+
+    /**
+     * Records how many levels a _siftUp moved the element.
+     *
+     * @param depth the number of levels moved
+     */
+    void siftUp(int depth)
+    {
+        _siftUpDepth.record(depth);
+    }
+
+    /**
+     * Records how many levels a _siftDown moved the element.
+     *
+     * @param depth the number of levels moved
+     */
+    void siftDown(int depth)
+    {
+        _siftDownDepth.record(depth);
+    }
+
+    /**
+     * Records a resize of the backing array.
+     *
+     * @param oldCapacity the capacity before the resize
+     * @param newCapacity the capacity after the resize
+     * @param copied the number of elements copied into the new array
+     */
+    void resize(int oldCapacity, int newCapacity, int copied)
+    {
+        long bytes = (long) copied * REFERENCE_BYTES;
+        _resizeCount++;
+        _bytesCopied += bytes;
+
+        ResizeEvent event = new ResizeEvent();
+        if (event.shouldCommit())
+        {
+            event.oldCapacity = oldCapacity;
+            event.newCapacity = newCapacity;
+            event.bytesCopied = bytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns an immutable copy of everything recorded so far.
+     *
+     * @return a snapshot of the current metrics
+     */
+    public Snapshot snapshot()
+    {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Discards everything recorded so far.
+     */
+    public void reset()
+    {
+        _addComparisons.clear();
+        _removeComparisons.clear();
+        _siftUpDepth.clear();
+        _siftDownDepth.clear();
+        _addLatency.clear();
+        _removeLatency.clear();
+        _resizeCount = 0;
+        _bytesCopied = 0;
+        _highWaterMark = 0;
+    }
+
+    /**
+     * Asks HotSpot whether compressed oops are on, falling back to the JVM's data model
+     * on VMs that do not expose the flag.
+     *
+     * @return the size of a reference in bytes
+     */
+    private static int _referenceBytes()
+    {
+        if ("32".equals(System.getProperty("sun.arch.data.model")))
+        {
+            return 4;
+        }
+        try
+        {
+            HotSpotDiagnosticMXBean hotSpot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            if (hotSpot != null)
+            {
+                return Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedOops").getValue()) ? 4 : 8;
+            }
+        }
+        catch (RuntimeException | LinkageError e)
+        {
+            // Not HotSpot, or the flag is unknown; assume no compression.
+        }
+        return 8;
+    }
+
+    private void _commitOperation(String operation, int size, long latency)
+    {
+        OperationEvent event = new OperationEvent();
+        if (event.shouldCommit())
+        {
+            event.operation = operation;
+            event.size = size;
+            event.comparisons = _comparisons;
+            event.latency = latency;
+            event.commit();
+        }
+    }
+
+    /**
+     * An immutable view of a HeapMetrics at the time snapshot() was called.
+     */
+    public static final class Snapshot
+    {
+        private final LatencyHistogram _addComparisons;
+        private final LatencyHistogram _removeComparisons;
+        private final LatencyHistogram _siftUpDepth;
+        private final LatencyHistogram _siftDownDepth;
+        private final LatencyHistogram _addLatency;
+        private final LatencyHistogram _removeLatency;
+        private final long _resizeCount;
+        private final long _bytesCopied;
+        private final int _highWaterMark;
+
+        private Snapshot(HeapMetrics metrics)
+        {
+            _addComparisons = _copy(metrics._addComparisons);
+            _removeComparisons = _copy(metrics._removeComparisons);
+            _siftUpDepth = _copy(metrics._siftUpDepth);
+            _siftDownDepth = _copy(metrics._siftDownDepth);
+            _addLatency = _copy(metrics._addLatency);
+            _removeLatency = _copy(metrics._removeLatency);
+            _resizeCount = metrics._resizeCount;
+            _bytesCopied = metrics._bytesCopied;
+            _highWaterMark = metrics._highWaterMark;
+        }
+
+        private static LatencyHistogram _copy(LatencyHistogram histogram)
+        {
+            LatencyHistogram copy = new LatencyHistogram();
+            copy.add(histogram);
+            return copy;
+        }
+
+        /**
+         * @return compareTo calls per add()
+         */
+        public LatencyHistogram addComparisons()
+        {
+            return _addComparisons;
+        }
+
+        /**
+         * @return compareTo calls per remove()
+         */
+        public LatencyHistogram removeComparisons()
+        {
+            return _removeComparisons;
+        }
+
+        /**
+         * @return levels moved per _siftUp
+         */
+        public LatencyHistogram siftUpDepth()
+        {
+            return _siftUpDepth;
+        }
+
+        /**
+         * @return levels moved per _siftDown
+         */
+        public LatencyHistogram siftDownDepth()
+        {
+            return _siftDownDepth;
+        }
+
+        /**
+         * @return add() latency in nanoseconds
+         */
+        public LatencyHistogram addLatency()
+        {
+            return _addLatency;
+        }
+
+        /**
+         * @return remove() latency in nanoseconds
+         */
+        public LatencyHistogram removeLatency()
+        {
+            return _removeLatency;
+        }
+
+        /**
+         * @return the number of times the backing array was grown
+         */
+        public long resizeCount()
+        {
+            return _resizeCount;
+        }
+
+        /**
+         * @return the approximate number of bytes copied by all resizes
+         */
+        public long bytesCopied()
+        {
+            return _bytesCopied;
+        }
+
+        /**
+         * @return the largest size the heap has reached
+         */
+        public int highWaterMark()
+        {
+            return _highWaterMark;
+        }
+    }
+
+    /**
+     * JFR event emitted whenever an instrumented heap grows its backing array.
+     */
+    @Name("BinaryMinHeap.Resize")
+    @Label("Heap Resize")
+    @Category("PriorityQueue")
+    @Description("Backing array of a BinaryMinHeap was grown")
+    static class ResizeEvent extends Event
+    {
+        @Label("Old Capacity")
+        int oldCapacity;
+
+        @Label("New Capacity")
+        int newCapacity;
+
+        @Label("Bytes Copied")
+        long bytesCopied;
+    }
+
+    /**
+     * JFR event emitted for each add or remove on an instrumented heap.
+     */
+    @Name("BinaryMinHeap.Operation")
+    @Label("Heap Operation")
+    @Category("PriorityQueue")
+    @Description("An add or remove on a BinaryMinHeap")
+    static class OperationEvent extends Event
+    {
+        @Label("Operation")
+        String operation;
+
+        @Label("Size")
+        int size;
+
+        @Label("Comparisons")
+        long comparisons;
+
+        @Label("Latency (ns)")
+        long latency;
+    }
+}
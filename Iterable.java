@@ -5,4 +5,15 @@
 public interface Iterable<E>
 {
     Iterator<E> iterator();
+
+    /**
+     * Adapts this Iterable to java.lang.Iterable so it can be used in for-each loops
+     * and with library code. Each call to iterator() on the result calls iterator() here.
+     *
+     * @return a java.lang.Iterable view of this Iterable
+     */
+    default java.lang.Iterable<E> asJavaIterable()
+    {
+        return () -> iterator().asJavaIterator();
+    }
 }
@@ -7,4 +7,27 @@ public interface Iterator<E>
 {
     boolean hasNext();
     E next();
+
+    /**
+     * Adapts this Iterator to java.util.Iterator so it can be used with library code.
+     * The result does not support remove().
+     *
+     * @return a java.util.Iterator view of this Iterator
+     */
+    default java.util.Iterator<E> asJavaIterator()
+    {
+        Iterator<E> self = this;
+        return new java.util.Iterator<E>()
+        {
+            public boolean hasNext()
+            {
+                return self.hasNext();
+            }
+
+            public E next()
+            {
+                return self.next();
+            }
+        };
+    }
 }
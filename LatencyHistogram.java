@@ -0,0 +1,140 @@
+import java.util.Arrays;
+
+/**
+ * A log-linear histogram of non-negative values such as latencies or comparison counts,
+ * accurate to within 1/64 (about 1.6%) of each value.
+ *
+ * Values below 128 are counted exactly; above that, each power of two is split into
+ * 64 equal sub-buckets, in the style of HdrHistogram. Recording is O(1) and allocation-free.
+ * A histogram is not thread-safe: give each thread its own and merge them with add().
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR = 2 * SUB_BUCKETS;
+    private static final int BUCKETS = LINEAR + (Long.SIZE - SUB_BUCKET_BITS - 2) * SUB_BUCKETS;
+
+    private final long[] _counts = new long[BUCKETS];
+    private long _count;
+    private long _sum;
+    private long _max;
+
+    /**
+     * Records one value.
+     *
+     * @param value the value to record; negative values are recorded as 0
+     */
+    public void record(long value)
+    {
+        if (value < 0)
+        {
+            value = 0;
+        }
+        _counts[_index(value)]++;
+        _count++;
+        _sum += value;
+        if (value > _max)
+        {
+            _max = value;
+        }
+    }
+
+    /**
+     * Adds every value recorded in another histogram to this one.
+     *
+     * @param other the histogram to merge in
+     */
+    public void add(LatencyHistogram other)
+    {
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            _counts[i] += other._counts[i];
+        }
+        _count += other._count;
+        _sum += other._sum;
+        _max = Math.max(_max, other._max);
+    }
+
+    /**
+     * Discards every recorded value.
+     */
+    public void clear()
+    {
+        Arrays.fill(_counts, 0);
+        _count = 0;
+        _sum = 0;
+        _max = 0;
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long count()
+    {
+        return _count;
+    }
+
+    /**
+     * @return the mean of the recorded values, or 0 if none were recorded
+     */
+    public double mean()
+    {
+        return _count == 0 ? 0 : (double) _sum / _count;
+    }
+
+    /**
+     * @return the largest recorded value
+     */
+    public long max()
+    {
+        return _max;
+    }
+
+    /**
+     * Returns the value at the given percentile, reported as the upper bound of its bucket.
+     *
+     * @param percentile a value between 0 and 100
+     * @return the value at that percentile, or 0 if nothing was recorded
+     */
+    public long percentile(double percentile)
+    {
+        if (_count == 0)
+        {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(_count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += _counts[i];
+            if (seen >= target)
+            {
+                return Math.min(_upperBound(i), _max);
+            }
+        }
+        return _max;
+    }
+
+    private static int _index(long value)
+    {
+        if (value < LINEAR)
+        {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR + (shift - 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long _upperBound(int index)
+    {
+        if (index < LINEAR)
+        {
+            return index;
+        }
+        int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+        long sub = (index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
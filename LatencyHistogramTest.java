@@ -0,0 +1,81 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentile_OnEmpty_ShouldReturnZero() {
+        assertEquals(0, new LatencyHistogram().percentile(99));
+    }
+
+    @Test
+    public void percentile_SmallValues_ShouldBeExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(50, histogram.percentile(50));
+        assertEquals(99, histogram.percentile(99));
+        assertEquals(100, histogram.percentile(100));
+        assertEquals(100, histogram.max());
+    }
+
+    @Test
+    public void percentile_LargeValues_ShouldBeWithinRelativePrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1_000_000; i++) {
+            histogram.record(i * 1000);
+        }
+        double[] percentiles = {50, 90, 99, 99.9, 99.99};
+        for (double percentile : percentiles) {
+            double expected = percentile * 10_000_000;
+            long actual = histogram.percentile(percentile);
+            assertTrue("p" + percentile + " was " + actual, actual >= expected);
+            assertTrue("p" + percentile + " was " + actual, actual <= expected * 1.02);
+        }
+    }
+
+    @Test
+    public void percentile_HugeValue_ShouldNotExceedMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+        assertEquals(0, histogram.percentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.percentile(100));
+    }
+
+    @Test
+    public void add_ShouldMergeCountsAndMax() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(10);
+        second.record(20);
+        second.record(30);
+        first.add(second);
+        assertEquals(3, first.count());
+        assertEquals(30, first.max());
+        assertEquals(20, first.percentile(50));
+    }
+
+    @Test
+    public void clear_ShouldDiscardValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42);
+        histogram.clear();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.max());
+    }
+
+    @Test
+    public void mean_ShouldAverageRecordedValuesIncludingMerged() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(10);
+        first.record(20);
+        second.record(1_000_000);
+        first.add(second);
+        assertEquals((10 + 20 + 1_000_000) / 3.0, first.mean(), 1e-9);
+        first.clear();
+        assertEquals(0, first.mean(), 0);
+    }
+}
@@ -0,0 +1,236 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A d-ary min-heap of primitive long keys, for when priorities are plain numbers and
+ * boxing them into a BinaryMinHeap&lt;Long&gt; would cost more than the heap operations.
+ *
+ * With arity 8 or 16 the heap is a quarter or less as deep as a binary heap, and each node's
+ * children sit next to each other in the array, aligned so that a node's 8 children fill one
+ * 64-byte block. Sift-down finds the smallest child with a fixed-width branch-free scan over
+ * that block, which the JIT compiles to conditional moves instead of unpredictable branches.
+ * A version of this scan on the incubating Vector API was slower at every arity, because the
+ * lane reduction and first-lane search cost more than 8 or 16 conditional moves.
+ *
+ * @see BinaryMinHeap
+ */
+public class LongDaryHeap
+{
+    private static final int DEFAULT = 16;
+
+    private final int _arity;
+    private final int _shift;
+    private final int _offset;
+    private long[] _keys;
+    private int _size;
+
+    /**
+     * Constructs a new LongDaryHeap with arity 8.
+     */
+    public LongDaryHeap()
+    {
+        this(8);
+    }
+
+    /**
+     * Constructs a new LongDaryHeap.
+     *
+     * @param arity the number of children per node: 2, 4, 8 or 16
+     * @throws IllegalArgumentException if arity is not one of the supported values
+     */
+    public LongDaryHeap(int arity)
+    {
+        if (arity != 2 && arity != 4 && arity != 8 && arity != 16)
+        {
+            throw new IllegalArgumentException("Arity must be 2, 4, 8 or 16");
+        }
+        _arity = arity;
+        _shift = Integer.numberOfTrailingZeros(arity);
+        // Node i lives at i + offset, so the children of node i start at arity * (i + 1),
+        // a multiple of the arity.
+        _offset = arity - 1;
+        _keys = new long[_offset + DEFAULT];
+        _size = 0;
+    }
+
+    /**
+     * Adds a key to the heap.
+     *
+     * @param key the key to add
+     */
+    public void add(long key)
+    {
+        if (_offset + _size == _keys.length)
+        {
+            _keys = Arrays.copyOf(_keys, _offset + _size * 2);
+        }
+        _siftUp(_size, key);
+        _size++;
+    }
+
+    /**
+     * Retrieves, without removing, the smallest key.
+     *
+     * @return the smallest key
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public long get()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        return _keys[_offset];
+    }
+
+    /**
+     * Retrieves and removes the smallest key.
+     *
+     * @return the smallest key
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public long remove()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        long min = _keys[_offset];
+        long last = _keys[_offset + --_size];
+        if (_size > 0)
+        {
+            _siftDown(0, last);
+        }
+        return min;
+    }
+
+    /**
+     * Clears the heap, removing all keys.
+     */
+    public void clear()
+    {
+        _size = 0;
+    }
+
+    /**
+     * Returns the number of keys in the heap.
+     *
+     * @return the number of keys
+     */
+    public int size()
+    {
+        return _size;
+    }
+
+    /**
+     * Returns _size == 0
+     * @return returns _size == 0
+     */
+    public boolean isEmpty()
+    {
+        return _size == 0;
+    }
+
+    /**
+     * Returns the number of children per node.
+     *
+     * @return the arity of the heap
+     */
+    public int arity()
+    {
+        return _arity;
+    }
+
+    /**
+     * Moves the hole at the given node up until the key fits, then stores the key there.
+     *
+     * @param index the node index of the hole
+     * @param key the key to place
+     */
+    private void _siftUp(int index, long key)
+    {
+        while (index > 0)
+        {
+            int parentIndex = (index - 1) >>> _shift;
+            long parent = _keys[_offset + parentIndex];
+            if (key >= parent)
+            {
+                break;
+            }
+            _keys[_offset + index] = parent;
+            index = parentIndex;
+        }
+        _keys[_offset + index] = key;
+    }
+
+    /**
+     * Moves the hole at the given node down until the key fits, then stores the key there.
+     *
+     * @param index the node index of the hole
+     * @param key the key to place
+     */
+    private void _siftDown(int index, long key)
+    {
+        long[] keys = _keys;
+        int end = _offset + _size;
+        while (true)
+        {
+            int first = (index + 1) << _shift;
+            if (first >= end)
+            {
+                break;
+            }
+            int smallest = first + _arity <= end ? _minOfFullGroup(keys, first) : _minOfPartialGroup(keys, first, end);
+            if (key <= keys[smallest])
+            {
+                break;
+            }
+            keys[_offset + index] = keys[smallest];
+            index = smallest - _offset;
+        }
+        keys[_offset + index] = key;
+    }
+
+    /**
+     * Finds the smallest of a complete, aligned group of arity siblings.
+     * The loop has a fixed trip count and no data-dependent branches.
+     *
+     * @param keys the key array
+     * @param first the array index of the first sibling
+     * @return the array index of the smallest sibling
+     */
+    private int _minOfFullGroup(long[] keys, int first)
+    {
+        int smallest = first;
+        long min = keys[first];
+        for (int i = first + 1, limit = first + _arity; i < limit; i++)
+        {
+            long key = keys[i];
+            boolean less = key < min;
+            min = less ? key : min;
+            smallest = less ? i : smallest;
+        }
+        return smallest;
+    }
+
+    /**
+     * Finds the smallest sibling in the last, partially filled group.
+     *
+     * @param keys the key array
+     * @param first the array index of the first sibling
+     * @param end one past the array index of the last key in the heap
+     * @return the array index of the smallest sibling
+     */
+    private int _minOfPartialGroup(long[] keys, int first, int end)
+    {
+        int smallest = first;
+        for (int i = first + 1; i < end; i++)
+        {
+            if (keys[i] < keys[smallest])
+            {
+                smallest = i;
+            }
+        }
+        return smallest;
+    }
+}
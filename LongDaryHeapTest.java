@@ -0,0 +1,83 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class LongDaryHeapTest {
+
+    private LongDaryHeap heap;
+
+    @Before
+    public void setUp() {
+        heap = new LongDaryHeap(8);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_UnsupportedArity_ShouldThrowIllegalArgumentException() {
+        new LongDaryHeap(3);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void get_OnEmptyHeap_ShouldThrowNoSuchElementException() {
+        heap.get();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void remove_OnEmptyHeap_ShouldThrowNoSuchElementException() {
+        heap.remove();
+    }
+
+    @Test
+    public void remove_MultipleKeys_ShouldReturnAscendingOrder() {
+        heap.add(10);
+        heap.add(5);
+        heap.add(15);
+        assertEquals(5, heap.get());
+        assertEquals(5, heap.remove());
+        assertEquals(10, heap.remove());
+        assertEquals(15, heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void remove_ExtremeValues_ShouldReturnAscendingOrder() {
+        heap.add(Long.MAX_VALUE);
+        heap.add(0);
+        heap.add(Long.MIN_VALUE);
+        assertEquals(Long.MIN_VALUE, heap.remove());
+        assertEquals(0, heap.remove());
+        assertEquals(Long.MAX_VALUE, heap.remove());
+    }
+
+    @Test
+    public void clear_ShouldRemoveAllKeys() {
+        heap.add(1);
+        heap.add(2);
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        heap.add(3);
+        assertEquals(3, heap.get());
+    }
+
+    @Test
+    public void stressTest_EverySupportedArity_ShouldSortRandomKeys() {
+        Random random = new Random(11);
+        for (int arity : new int[] {2, 4, 8, 16}) {
+            LongDaryHeap dary = new LongDaryHeap(arity);
+            long[] keys = new long[10000];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextLong() % 1000;
+                dary.add(keys[i]);
+            }
+            Arrays.sort(keys);
+            long[] removed = new long[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                removed[i] = dary.remove();
+            }
+            assertArrayEquals("Arity " + arity + " should remove keys in ascending order", keys, removed);
+        }
+    }
+}
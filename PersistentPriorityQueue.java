@@ -0,0 +1,195 @@
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable min-priority queue implemented as a persistent leftist heap.
+ *
+ * add() and remove() never change a queue; they return a new version in O(log n) that
+ * shares all untouched nodes with the old one. Every version stays valid for as long as
+ * it is referenced, so handing a version to another thread is an O(1) consistent snapshot
+ * that needs no locking or copying.
+ *
+ * Because versions are immutable, this class cannot implement PriorityQueue directly;
+ * see VersionedPriorityQueue for a mutable PriorityQueue built on top of it.
+ *
+ * @param <E> the type of elements in this queue, which must be Comparable
+ */
+public class PersistentPriorityQueue<E extends Comparable<E>> implements Iterable<E>
+{
+    private static final PersistentPriorityQueue<?> EMPTY = new PersistentPriorityQueue<>(null);
+
+    private final Node<E> _root;
+
+    private PersistentPriorityQueue(Node<E> root)
+    {
+        _root = root;
+    }
+
+    /**
+     * Returns the empty queue.
+     *
+     * @param <E> the type of elements in the queue
+     * @return an empty queue
+     */
+    public static <E extends Comparable<E>> PersistentPriorityQueue<E> empty()
+    {
+        return (PersistentPriorityQueue<E>) EMPTY;
+    }
+
+    /**
+     * Returns a new version of this queue with the element added. This queue is unchanged.
+     *
+     * @param element the element to add
+     * @return a queue containing this queue's elements and the new element
+     * @throws IllegalArgumentException if the element is null
+     */
+    public PersistentPriorityQueue<E> add(E element)
+    {
+        if (element == null)
+        {
+            throw new IllegalArgumentException("Cannot add null to the PersistentPriorityQueue");
+        }
+        return new PersistentPriorityQueue<>(_merge(_root, new Node<>(element, null, null)));
+    }
+
+    /**
+     * Retrieves the smallest element of this version.
+     *
+     * @return the smallest element
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public E get()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        return _root._element;
+    }
+
+    /**
+     * Returns a new version of this queue without its smallest element. This queue is unchanged.
+     *
+     * @return a queue containing every element except the smallest
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public PersistentPriorityQueue<E> remove()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        Node<E> root = _merge(_root._left, _root._right);
+        return root == null ? empty() : new PersistentPriorityQueue<>(root);
+    }
+
+    /**
+     * Returns a queue containing the elements of both queues in O(log n).
+     *
+     * @param other the queue to merge with
+     * @return a queue containing the elements of this queue and other
+     */
+    public PersistentPriorityQueue<E> merge(PersistentPriorityQueue<E> other)
+    {
+        return new PersistentPriorityQueue<>(_merge(_root, other._root));
+    }
+
+    /**
+     * Returns the number of elements in this version.
+     *
+     * @return the number of elements
+     */
+    public int size()
+    {
+        return _root == null ? 0 : _root._size;
+    }
+
+    /**
+     * Returns size() == 0
+     * @return returns size() == 0
+     */
+    public boolean isEmpty()
+    {
+        return _root == null;
+    }
+
+    /**
+     * Creates an iterator over this version in ascending order. Each step removes the minimum
+     * from a private version, merging the root's children and so allocating O(log n) new nodes;
+     * a full pass allocates O(n log n) nodes in total, which become garbage as it advances.
+     * This version is never changed.
+     *
+     * @return an iterator over the elements in ascending order
+     */
+    public Iterator<E> iterator()
+    {
+        return new Iterator<E>()
+        {
+            private PersistentPriorityQueue<E> _remaining = PersistentPriorityQueue.this;
+
+            public boolean hasNext()
+            {
+                return !_remaining.isEmpty();
+            }
+
+            public E next()
+            {
+                E element = _remaining.get();
+                _remaining = _remaining.remove();
+                return element;
+            }
+        };
+    }
+
+    /**
+     * Merges two leftist heaps along their right spines, copying only the nodes on the path.
+     * The right spine of a leftist heap has at most log(n + 1) nodes, which bounds the recursion.
+     *
+     * @param a the first heap, or null
+     * @param b the second heap, or null
+     * @return the merged heap
+     */
+    private static <E extends Comparable<E>> Node<E> _merge(Node<E> a, Node<E> b)
+    {
+        if (a == null)
+        {
+            return b;
+        }
+        if (b == null)
+        {
+            return a;
+        }
+        if (b._element.compareTo(a._element) < 0)
+        {
+            Node<E> swap = a;
+            a = b;
+            b = swap;
+        }
+        return new Node<>(a._element, a._left, _merge(a._right, b));
+    }
+
+    /**
+     * An immutable leftist heap node. Its rank is the length of its right spine,
+     * and the child with the larger rank is always kept on the left.
+     *
+     * @param <E> the type of the element
+     */
+    private static final class Node<E>
+    {
+        private final E _element;
+        private final Node<E> _left;
+        private final Node<E> _right;
+        private final int _rank;
+        private final int _size;
+
+        private Node(E element, Node<E> a, Node<E> b)
+        {
+            int rankA = a == null ? 0 : a._rank;
+            int rankB = b == null ? 0 : b._rank;
+            _element = element;
+            _left = rankA >= rankB ? a : b;
+            _right = rankA >= rankB ? b : a;
+            _rank = Math.min(rankA, rankB) + 1;
+            _size = 1 + (a == null ? 0 : a._size) + (b == null ? 0 : b._size);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+public class PersistentPriorityQueueTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_NullElement_ShouldThrowIllegalArgumentException() {
+        PersistentPriorityQueue.<Integer>empty().add(null);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void get_OnEmptyQueue_ShouldThrowNoSuchElementException() {
+        PersistentPriorityQueue.<Integer>empty().get();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void remove_OnEmptyQueue_ShouldThrowNoSuchElementException() {
+        PersistentPriorityQueue.<Integer>empty().remove();
+    }
+
+    @Test
+    public void add_ShouldNotChangeOriginalVersion() {
+        PersistentPriorityQueue<Integer> empty = PersistentPriorityQueue.empty();
+        PersistentPriorityQueue<Integer> one = empty.add(10);
+        PersistentPriorityQueue<Integer> two = one.add(5);
+        assertTrue("The empty version should stay empty", empty.isEmpty());
+        assertEquals(1, one.size());
+        assertEquals(Integer.valueOf(10), one.get());
+        assertEquals(2, two.size());
+        assertEquals(Integer.valueOf(5), two.get());
+    }
+
+    @Test
+    public void remove_ShouldReturnNewVersionWithoutMinimum() {
+        PersistentPriorityQueue<Integer> queue = PersistentPriorityQueue.<Integer>empty().add(3).add(1).add(2);
+        PersistentPriorityQueue<Integer> rest = queue.remove();
+        assertEquals(Integer.valueOf(1), queue.get());
+        assertEquals(3, queue.size());
+        assertEquals(Integer.valueOf(2), rest.get());
+        assertEquals(2, rest.size());
+    }
+
+    @Test
+    public void iterator_ShouldVisitAscendingOrderWithoutConsuming() {
+        PersistentPriorityQueue<Integer> queue = PersistentPriorityQueue.empty();
+        for (int i = 0; i < 500; i++) {
+            queue = queue.add((i * 37) % 500);
+        }
+        Iterator<Integer> iterator = queue.iterator();
+        for (int i = 0; i < 500; i++) {
+            assertTrue(iterator.hasNext());
+            assertEquals(Integer.valueOf(i), iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+        assertEquals("Iterating should not change the queue", 500, queue.size());
+    }
+
+    @Test
+    public void merge_ShouldContainElementsOfBoth() {
+        PersistentPriorityQueue<Integer> a = PersistentPriorityQueue.<Integer>empty().add(4).add(1);
+        PersistentPriorityQueue<Integer> b = PersistentPriorityQueue.<Integer>empty().add(3).add(2);
+        PersistentPriorityQueue<Integer> merged = a.merge(b);
+        assertEquals(4, merged.size());
+        assertEquals(Integer.valueOf(1), merged.get());
+        assertEquals(Integer.valueOf(2), merged.remove().get());
+        assertEquals(2, a.size());
+    }
+
+    @Test
+    public void versioned_SnapshotShouldNotSeeLaterChanges() {
+        VersionedPriorityQueue<Integer> queue = new VersionedPriorityQueue<>();
+        queue.add(10);
+        queue.add(5);
+        PersistentPriorityQueue<Integer> snapshot = queue.snapshot();
+        queue.add(1);
+        queue.remove();
+        queue.remove();
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertEquals("Snapshot should keep its elements", 2, snapshot.size());
+        assertEquals(Integer.valueOf(5), snapshot.get());
+    }
+
+    @Test
+    public void versioned_ShouldBehaveAsPriorityQueue() {
+        PriorityQueue<Integer> queue = new VersionedPriorityQueue<>();
+        queue.add(10);
+        queue.add(5);
+        queue.add(15);
+        assertEquals(Integer.valueOf(5), queue.get());
+        assertEquals(Integer.valueOf(5), queue.remove());
+        assertEquals(Integer.valueOf(10), queue.remove());
+        assertEquals(Integer.valueOf(15), queue.remove());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void versioned_ConcurrentWritersAndSnapshotReaders_ShouldSeeConsistentViews() throws InterruptedException {
+        VersionedPriorityQueue<Integer> queue = new VersionedPriorityQueue<>();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 5000; i++) {
+                queue.add(i);
+                if (i % 3 == 0) {
+                    queue.remove();
+                }
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            PersistentPriorityQueue<Integer> snapshot = queue.snapshot();
+            int count = 0;
+            int previous = Integer.MIN_VALUE;
+            Iterator<Integer> iterator = snapshot.iterator();
+            while (iterator.hasNext()) {
+                int value = iterator.next();
+                assertTrue("Snapshot should iterate in ascending order", value >= previous);
+                previous = value;
+                count++;
+            }
+            assertEquals("Snapshot size should match its contents", snapshot.size(), count);
+        }
+        writer.join();
+    }
+}
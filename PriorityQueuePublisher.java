@@ -0,0 +1,321 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Flow.Publisher that hands out the contents of a PriorityQueue in priority order,
+ * only as fast as subscribers request them.
+ *
+ * Elements stay in the queue until a subscriber has outstanding demand, so an element
+ * added late with a higher priority overtakes everything still waiting. Each element goes
+ * to exactly one subscriber; with several subscribers, demand is served round-robin.
+ * Elements are taken from the queue in batches of up to batchSize per subscriber to reduce
+ * locking and signaling cost, at the price of fixing the order within a batch.
+ *
+ * All signals are delivered serially from whichever thread calls add(), close(),
+ * subscribe() or request() while there is work to do.
+ *
+ * @param <E> the type of elements published
+ */
+public class PriorityQueuePublisher<E extends Comparable<E>> implements Flow.Publisher<E>
+{
+    private static final int DEFAULT_BATCH_SIZE = 16;
+
+    private final PriorityQueue<E> _queue;
+    private final int _batchSize;
+    private final List<PrioritySubscription> _subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicInteger _wip = new AtomicInteger();
+    private volatile boolean _closed;
+    private int _next;
+
+    /**
+     * Constructs a new PriorityQueuePublisher over a new BinaryMinHeap.
+     */
+    public PriorityQueuePublisher()
+    {
+        this(new BinaryMinHeap<>(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a new PriorityQueuePublisher over the given queue.
+     * The publisher takes ownership of the queue; it must not be used directly afterwards.
+     *
+     * @param queue the queue to publish from
+     * @param batchSize the most elements taken from the queue per subscriber at a time
+     * @throws IllegalArgumentException if queue is null or batchSize is less than 1
+     */
+    public PriorityQueuePublisher(PriorityQueue<E> queue, int batchSize)
+    {
+        if (queue == null || batchSize < 1)
+        {
+            throw new IllegalArgumentException();
+        }
+        _queue = queue;
+        _batchSize = batchSize;
+    }
+
+    /**
+     * Adds an element to be published in priority order.
+     *
+     * @param element the element to add
+     * @throws IllegalArgumentException if the element is null
+     * @throws IllegalStateException if the publisher has been closed
+     */
+    public void add(E element)
+    {
+        synchronized (_queue)
+        {
+            // Checked under the queue lock so that no element slips in after close() has
+            // returned and the drain has decided the queue is finished.
+            if (_closed)
+            {
+                throw new IllegalStateException("Publisher is closed");
+            }
+            _queue.add(element);
+        }
+        _drain();
+    }
+
+    /**
+     * Stops accepting elements. Subscribers are completed once the queue has been drained.
+     */
+    public void close()
+    {
+        synchronized (_queue)
+        {
+            _closed = true;
+        }
+        _drain();
+    }
+
+    /**
+     * Returns the number of elements waiting to be published.
+     *
+     * @return the number of queued elements
+     */
+    public int size()
+    {
+        synchronized (_queue)
+        {
+            return _queue.size();
+        }
+    }
+
+    public void subscribe(Flow.Subscriber<? super E> subscriber)
+    {
+        if (subscriber == null)
+        {
+            throw new NullPointerException();
+        }
+        PrioritySubscription subscription = new PrioritySubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        if (!subscription._done)
+        {
+            _subscriptions.add(subscription);
+        }
+        _drain();
+    }
+
+    /**
+     * Delivers queued elements to subscribers with outstanding demand. Only one thread drains
+     * at a time; calls that arrive while a drain is running make it loop once more instead.
+     * If the queue itself throws, the drain is released so later calls can run it again.
+     */
+    private void _drain()
+    {
+        if (_wip.getAndIncrement() != 0)
+        {
+            return;
+        }
+        int missed = 1;
+        boolean released = false;
+        try
+        {
+            do
+            {
+                _deliver();
+                if (_closed && size() == 0)
+                {
+                    for (PrioritySubscription subscription : _subscriptions)
+                    {
+                        subscription.complete();
+                    }
+                }
+                missed = _wip.addAndGet(-missed);
+            }
+            while (missed != 0);
+            released = true;
+        }
+        finally
+        {
+            if (!released)
+            {
+                _wip.set(0);
+            }
+        }
+    }
+
+    /**
+     * Hands out batches round-robin until the queue is empty or no subscriber has demand.
+     * Each pass works on a snapshot of the subscriptions, since subscribers may cancel or
+     * subscribe from inside onNext().
+     */
+    private void _deliver()
+    {
+        List<E> batch = new ArrayList<>(_batchSize);
+        boolean progress = true;
+        while (progress)
+        {
+            progress = false;
+            List<PrioritySubscription> subscriptions = new ArrayList<>(_subscriptions);
+            int count = subscriptions.size();
+            for (int i = 0; i < count; i++)
+            {
+                PrioritySubscription subscription = subscriptions.get((_next + i) % count);
+                long demand = subscription._requested.get();
+                if (demand == 0 || subscription._done)
+                {
+                    continue;
+                }
+                synchronized (_queue)
+                {
+                    while (batch.size() < demand && batch.size() < _batchSize && !_queue.isEmpty())
+                    {
+                        batch.add(_queue.remove());
+                    }
+                }
+                if (batch.isEmpty())
+                {
+                    return;
+                }
+                _next = (_next + i + 1) % count;
+                subscription.emit(batch);
+                batch.clear();
+                progress = true;
+                break;
+            }
+        }
+    }
+
+    /**
+     * The subscription given to each subscriber, tracking its outstanding demand.
+     */
+    private final class PrioritySubscription implements Flow.Subscription
+    {
+        private final Flow.Subscriber<? super E> _subscriber;
+        private final AtomicLong _requested = new AtomicLong();
+        private volatile boolean _done;
+
+        private PrioritySubscription(Flow.Subscriber<? super E> subscriber)
+        {
+            _subscriber = subscriber;
+        }
+
+        public void request(long n)
+        {
+            if (_done)
+            {
+                return;
+            }
+            if (n <= 0)
+            {
+                cancel();
+                _subscriber.onError(new IllegalArgumentException("request must be positive, was " + n));
+                return;
+            }
+            _requested.accumulateAndGet(n, (current, added) ->
+                    current + added < 0 ? Long.MAX_VALUE : current + added);
+            _drain();
+        }
+
+        public void cancel()
+        {
+            _done = true;
+            _subscriptions.remove(this);
+        }
+
+        /**
+         * Delivers a batch, returning to the queue anything left if the subscriber cancels part way.
+         * A subscriber whose onNext() throws is sent the exception through onError() and cancelled,
+         * and the element it failed on goes back to the queue with the rest of the batch for the
+         * other subscribers.
+         *
+         * @param batch the elements to deliver, in priority order
+         */
+        private void emit(List<E> batch)
+        {
+            if (_requested.get() != Long.MAX_VALUE)
+            {
+                _requested.addAndGet(-batch.size());
+            }
+            for (int i = 0; i < batch.size(); i++)
+            {
+                if (!_done)
+                {
+                    try
+                    {
+                        _subscriber.onNext(batch.get(i));
+                        continue;
+                    }
+                    catch (RuntimeException e)
+                    {
+                        _fail(e);
+                    }
+                }
+                _requeue(batch, i);
+                return;
+            }
+        }
+
+        /**
+         * Signals a failure of the subscriber's own onNext() back to it, then cancels it.
+         * The subscription is cancelled even if onError() throws as well.
+         *
+         * @param cause the exception thrown by onNext()
+         */
+        private void _fail(RuntimeException cause)
+        {
+            try
+            {
+                _subscriber.onError(cause);
+            }
+            catch (RuntimeException ignored)
+            {
+                // The subscriber is being dropped either way.
+            }
+            finally
+            {
+                cancel();
+            }
+        }
+
+        /**
+         * Returns the undelivered tail of a batch to the queue.
+         *
+         * @param batch the batch being delivered
+         * @param from the index of the first undelivered element
+         */
+        private void _requeue(List<E> batch, int from)
+        {
+            synchronized (_queue)
+            {
+                for (int i = from; i < batch.size(); i++)
+                {
+                    _queue.add(batch.get(i));
+                }
+            }
+        }
+
+        private void complete()
+        {
+            if (!_done)
+            {
+                cancel();
+                _subscriber.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+public class PriorityQueuePublisherTest {
+
+    private PriorityQueuePublisher<Integer> publisher;
+    private RecordingSubscriber subscriber;
+
+    @Before
+    public void setUp() {
+        publisher = new PriorityQueuePublisher<>(new BinaryMinHeap<Integer>(), 2);
+        subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void subscribe_NullSubscriber_ShouldThrowNullPointerException() {
+        publisher.subscribe(null);
+    }
+
+    @Test
+    public void add_WithoutDemand_ShouldNotEmit() {
+        publisher.add(5);
+        assertTrue("Nothing should be emitted before request()", subscriber.received.isEmpty());
+        assertEquals(1, publisher.size());
+    }
+
+    @Test
+    public void request_ShouldEmitInPriorityOrder() {
+        publisher.add(30);
+        publisher.add(10);
+        publisher.add(20);
+        subscriber.subscription.request(3);
+        assertEquals(List.of(10, 20, 30), subscriber.received);
+    }
+
+    @Test
+    public void request_ShouldEmitNoMoreThanRequested() {
+        publisher.add(3);
+        publisher.add(1);
+        publisher.add(2);
+        subscriber.subscription.request(1);
+        assertEquals(List.of(1), subscriber.received);
+        assertEquals(2, publisher.size());
+    }
+
+    @Test
+    public void add_LateHighPriority_ShouldJumpAheadOfWaitingElements() {
+        publisher.add(50);
+        publisher.add(40);
+        subscriber.subscription.request(1);
+        publisher.add(1);
+        subscriber.subscription.request(2);
+        assertEquals(List.of(40, 1, 50), subscriber.received);
+    }
+
+    @Test
+    public void add_WithOutstandingDemand_ShouldEmitImmediately() {
+        subscriber.subscription.request(5);
+        publisher.add(7);
+        assertEquals(List.of(7), subscriber.received);
+    }
+
+    @Test
+    public void request_NonPositive_ShouldSignalError() {
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void close_ShouldCompleteAfterQueueDrains() {
+        publisher.add(1);
+        publisher.close();
+        assertFalse("Should not complete while elements remain", subscriber.completed);
+        subscriber.subscription.request(1);
+        assertTrue("Should complete once the queue is drained", subscriber.completed);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void add_AfterClose_ShouldThrowIllegalStateException() {
+        publisher.close();
+        publisher.add(1);
+    }
+
+    @Test
+    public void request_TwoSubscribers_ShouldEachReceiveDistinctElements() {
+        RecordingSubscriber other = new RecordingSubscriber();
+        publisher.subscribe(other);
+        for (int i = 0; i < 10; i++) {
+            publisher.add(i);
+        }
+        subscriber.subscription.request(5);
+        other.subscription.request(5);
+        assertEquals(5, subscriber.received.size());
+        assertEquals(5, other.received.size());
+        List<Integer> all = new ArrayList<>(subscriber.received);
+        all.addAll(other.received);
+        all.sort(null);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), all);
+    }
+
+    @Test
+    public void cancel_ShouldStopEmission() {
+        subscriber.subscription.cancel();
+        publisher.add(1);
+        subscriber.subscription.request(1);
+        assertTrue(subscriber.received.isEmpty());
+        assertEquals(1, publisher.size());
+    }
+
+    @Test
+    public void cancel_FromOnNextWithSeveralSubscribers_ShouldKeepDelivering() {
+        RecordingSubscriber other = new RecordingSubscriber();
+        RecordingSubscriber cancelling = new RecordingSubscriber() {
+            @Override
+            public void onNext(Integer item) {
+                super.onNext(item);
+                subscription.cancel();
+            }
+        };
+        publisher.subscribe(cancelling);
+        publisher.subscribe(other);
+        for (int i = 0; i < 10; i++) {
+            publisher.add(i);
+        }
+        cancelling.subscription.request(10);
+        subscriber.subscription.request(4);
+        other.subscription.request(4);
+        assertEquals(1, cancelling.received.size());
+        assertEquals(4, subscriber.received.size());
+        assertEquals(4, other.received.size());
+        assertEquals("The cancelled subscriber's undelivered element should be requeued", 1, publisher.size());
+    }
+
+    @Test
+    public void onNext_Throwing_ShouldCancelSubscriberAndRequeueElements() {
+        RecordingSubscriber failing = new RecordingSubscriber() {
+            @Override
+            public void onNext(Integer item) {
+                throw new IllegalStateException("boom");
+            }
+        };
+        PriorityQueuePublisher<Integer> publisher = new PriorityQueuePublisher<>(new BinaryMinHeap<Integer>(), 2);
+        publisher.subscribe(failing);
+        publisher.add(1);
+        publisher.add(2);
+        failing.subscription.request(2);
+        assertEquals("Elements the subscriber failed on should go back to the queue", 2, publisher.size());
+        RecordingSubscriber healthy = new RecordingSubscriber();
+        publisher.subscribe(healthy);
+        healthy.subscription.request(2);
+        assertEquals(List.of(1, 2), healthy.received);
+    }
+
+    @Test
+    public void onNext_Throwing_ShouldSignalOnErrorWithTheException() {
+        IllegalStateException boom = new IllegalStateException("boom");
+        RecordingSubscriber failing = new RecordingSubscriber() {
+            @Override
+            public void onNext(Integer item) {
+                throw boom;
+            }
+        };
+        PriorityQueuePublisher<Integer> publisher = new PriorityQueuePublisher<>(new BinaryMinHeap<Integer>(), 2);
+        publisher.subscribe(failing);
+        publisher.add(1);
+        failing.subscription.request(1);
+        assertSame(boom, failing.error);
+        failing.subscription.request(1);
+        assertEquals("A failed subscriber should stay cancelled", 1, publisher.size());
+    }
+
+    @Test
+    public void onNext_ThrowingAndOnErrorThrowing_ShouldStillCancel() {
+        RecordingSubscriber failing = new RecordingSubscriber() {
+            @Override
+            public void onNext(Integer item) {
+                throw new IllegalStateException("boom");
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throw new IllegalStateException("again");
+            }
+        };
+        PriorityQueuePublisher<Integer> publisher = new PriorityQueuePublisher<>(new BinaryMinHeap<Integer>(), 2);
+        publisher.subscribe(failing);
+        publisher.add(1);
+        failing.subscription.request(1);
+        assertEquals(1, publisher.size());
+        RecordingSubscriber healthy = new RecordingSubscriber();
+        publisher.subscribe(healthy);
+        healthy.subscription.request(1);
+        assertEquals(List.of(1), healthy.received);
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<Integer> {
+        Flow.Subscription subscription;
+        final List<Integer> received = new ArrayList<>();
+        Throwable error;
+        boolean completed;
+
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        public void onNext(Integer item) {
+            received.add(item);
+        }
+
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
+
+/**
+ * A monotone radix heap for elements with integer priorities.
+ * Each element's priority is read once through a key function and elements are kept
+ * in buckets by the highest bit in which their key differs from the last removed key,
+ * so no compareTo calls are made and each operation costs amortized O(log C),
+ * where C is the largest difference between keys.
+ *
+ * The heap is monotone: an element may not be added with a key smaller than the key
+ * of the last element removed. This suits Dijkstra's algorithm with non-negative
+ * integer weights and simulations whose timestamps never go backwards.
+ *
+ * @param <E> the type of elements in this heap
+ */
+public class RadixHeap<E extends Comparable<E>> implements PriorityQueue<E>
+{
+    private static final int BUCKETS = Long.SIZE + 1;
+    private static final int DEFAULT = 4;
+
+    private final ToLongFunction<? super E> _key;
+    private final E[][] _elements;
+    private final long[][] _keys;
+    private final int[] _counts;
+    private long _last;
+    private int _size;
+    private E _min;
+    private long _minKey;
+
+    /**
+     * Constructs a new RadixHeap that orders elements by the given key.
+     *
+     * @param key a function returning the integer priority of an element; smaller keys come out first
+     * @throws IllegalArgumentException if key is null
+     */
+    public RadixHeap(ToLongFunction<? super E> key)
+    {
+        if (key == null)
+        {
+            throw new IllegalArgumentException();
+        }
+        _key = key;
+        _elements = (E[][]) new Comparable[BUCKETS][];
+        _keys = new long[BUCKETS][];
+        _counts = new int[BUCKETS];
+        _last = Long.MIN_VALUE;
+    }
+
+    /**
+     * Adds the specified element to the heap in priority order.
+     *
+     * @param element the element to add to the heap
+     * @throws IllegalArgumentException if the element is null, or its key is smaller
+     *         than the key of the last removed element
+     */
+    public void add(E element)
+    {
+        if (element == null)
+        {
+            throw new IllegalArgumentException("Cannot add null to the RadixHeap");
+        }
+        long key = _key.applyAsLong(element);
+        if (key < _last)
+        {
+            throw new IllegalArgumentException("Key " + key + " is below the last removed key " + _last);
+        }
+        _push(_bucket(key), element, key);
+        _size++;
+        // On a tie the new element is the last one with that key in its bucket,
+        // which is the one remove() will take.
+        if (_min != null && key <= _minKey)
+        {
+            _min = element;
+            _minKey = key;
+        }
+    }
+
+    /**
+     * Retrieves, without removing, the element with the smallest key.
+     * Peeking does not change which keys may be added.
+     *
+     * @return the element with the smallest key
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public E get()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        if (_counts[0] > 0)
+        {
+            return _elements[0][_counts[0] - 1];
+        }
+        if (_min == null)
+        {
+            _findMin();
+        }
+        return _min;
+    }
+
+    /**
+     * Retrieves and removes the element with the smallest key.
+     * After this call, elements with a smaller key than the removed one may no longer be added.
+     *
+     * @return the element with the smallest key
+     * @throws NoSuchElementException if the heap is empty
+     */
+    public E remove()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        _fillFirstBucket();
+        _min = null;
+        int index = --_counts[0];
+        E element = _elements[0][index];
+        _elements[0][index] = null;
+        _size--;
+        return element;
+    }
+
+    /**
+     * Clears the heap and resets the monotone lower bound, so any key may be added again.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            if (_elements[i] != null)
+            {
+                Arrays.fill(_elements[i], 0, _counts[i], null);
+            }
+            _counts[i] = 0;
+        }
+        _last = Long.MIN_VALUE;
+        _size = 0;
+        _min = null;
+    }
+
+    /**
+     * Returns the number of elements in the heap.
+     *
+     * @return the number of elements
+     */
+    public int size()
+    {
+        return _size;
+    }
+
+    /**
+     * Returns _size == 0
+     * @return returns _size == 0
+     */
+    public boolean isEmpty()
+    {
+        return _size == 0;
+    }
+
+    /**
+     * Returns the bucket for a key: 0 if it equals the last removed key, otherwise
+     * one more than the index of the highest bit in which the two keys differ.
+     *
+     * @param key the key to place
+     * @return the bucket index
+     */
+    private int _bucket(long key)
+    {
+        return key == _last ? 0 : Long.SIZE - Long.numberOfLeadingZeros(key ^ _last);
+    }
+
+    /**
+     * Makes sure bucket 0 holds the smallest key. If it is empty, the first non-empty bucket
+     * is scanned for its minimum, which becomes the new last key, and the bucket's elements
+     * are redistributed into strictly lower buckets.
+     */
+    private void _fillFirstBucket()
+    {
+        if (_counts[0] > 0)
+        {
+            return;
+        }
+        int bucket = 1;
+        while (_counts[bucket] == 0)
+        {
+            bucket++;
+        }
+        E[] elements = _elements[bucket];
+        long[] keys = _keys[bucket];
+        int count = _counts[bucket];
+        long min = keys[0];
+        for (int i = 1; i < count; i++)
+        {
+            if (keys[i] < min)
+            {
+                min = keys[i];
+            }
+        }
+        _last = min;
+        _counts[bucket] = 0;
+        for (int i = 0; i < count; i++)
+        {
+            _push(_bucket(keys[i]), elements[i], keys[i]);
+            elements[i] = null;
+        }
+    }
+
+    /**
+     * Caches the smallest element of the first non-empty bucket, without redistributing it,
+     * so that get() leaves the last removed key, and with it the monotone bound, unchanged.
+     * Among equal keys it picks the last one: _fillFirstBucket() moves them into bucket 0
+     * in order and remove() pops from the end, so that is the element remove() returns.
+     * Must only be called when bucket 0 is empty and the heap is not.
+     */
+    private void _findMin()
+    {
+        int bucket = 1;
+        while (_counts[bucket] == 0)
+        {
+            bucket++;
+        }
+        long[] keys = _keys[bucket];
+        int min = 0;
+        for (int i = 1; i < _counts[bucket]; i++)
+        {
+            if (keys[i] <= keys[min])
+            {
+                min = i;
+            }
+        }
+        _min = _elements[bucket][min];
+        _minKey = keys[min];
+    }
+
+    private void _push(int bucket, E element, long key)
+    {
+        int count = _counts[bucket];
+        if (_elements[bucket] == null)
+        {
+            _elements[bucket] = (E[]) new Comparable[DEFAULT];
+            _keys[bucket] = new long[DEFAULT];
+        }
+        else if (count == _elements[bucket].length)
+        {
+            _elements[bucket] = Arrays.copyOf(_elements[bucket], count * 2);
+            _keys[bucket] = Arrays.copyOf(_keys[bucket], count * 2);
+        }
+        _elements[bucket][count] = element;
+        _keys[bucket][count] = key;
+        _counts[bucket] = count + 1;
+    }
+}
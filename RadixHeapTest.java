@@ -0,0 +1,158 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class RadixHeapTest {
+
+    private RadixHeap<Long> heap;
+
+    @Before
+    public void setUp() {
+        heap = new RadixHeap<>(Long::longValue);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_NullElement_ShouldThrowIllegalArgumentException() {
+        heap.add(null);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void get_OnEmptyHeap_ShouldThrowNoSuchElementException() {
+        heap.get();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void remove_OnEmptyHeap_ShouldThrowNoSuchElementException() {
+        heap.remove();
+    }
+
+    @Test
+    public void add_SmallerKeyAfterGet_ShouldBeAllowed() {
+        heap.add(10L);
+        assertEquals(Long.valueOf(10), heap.get());
+        heap.add(5L);
+        assertEquals("Peeking should not raise the monotone bound", Long.valueOf(5), heap.get());
+        assertEquals(Long.valueOf(5), heap.remove());
+        assertEquals(Long.valueOf(10), heap.remove());
+    }
+
+    @Test
+    public void get_InterleavedWithAddsAndRemoves_ShouldMatchSortedOrder() {
+        Random random = new Random(3);
+        java.util.PriorityQueue<Long> reference = new java.util.PriorityQueue<>();
+        long floor = 0;
+        for (int i = 0; i < 20_000; i++) {
+            int op = random.nextInt(3);
+            if (op == 0 || reference.isEmpty()) {
+                long key = floor + random.nextInt(1000);
+                heap.add(key);
+                reference.add(key);
+            } else if (op == 1) {
+                assertEquals(reference.peek(), heap.get());
+            } else {
+                floor = heap.remove();
+                assertEquals(Long.valueOf(floor), reference.poll());
+            }
+        }
+    }
+
+    @Test
+    public void remove_MultipleElements_ShouldReturnAscendingOrder() {
+        heap.add(10L);
+        heap.add(5L);
+        heap.add(15L);
+        assertEquals(Long.valueOf(5), heap.get());
+        assertEquals(Long.valueOf(5), heap.remove());
+        assertEquals(Long.valueOf(10), heap.remove());
+        assertEquals(Long.valueOf(15), heap.remove());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void add_KeyEqualToLastRemoved_ShouldBeAllowed() {
+        heap.add(7L);
+        heap.remove();
+        heap.add(7L);
+        assertEquals("Keys equal to the last removed key are still monotone", Long.valueOf(7), heap.remove());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_KeyBelowLastRemoved_ShouldThrowIllegalArgumentException() {
+        heap.add(7L);
+        heap.remove();
+        heap.add(6L);
+    }
+
+    @Test
+    public void clear_ShouldResetMonotoneBound() {
+        heap.add(100L);
+        heap.remove();
+        heap.clear();
+        heap.add(1L);
+        assertEquals("After clear any key may be added", Long.valueOf(1), heap.remove());
+        assertEquals(0, heap.size());
+    }
+
+    @Test
+    public void remove_NegativeKeys_ShouldReturnAscendingOrder() {
+        heap.add(-3L);
+        heap.add(Long.MIN_VALUE);
+        heap.add(Long.MAX_VALUE);
+        assertEquals(Long.valueOf(Long.MIN_VALUE), heap.remove());
+        assertEquals(Long.valueOf(-3), heap.remove());
+        assertEquals(Long.valueOf(Long.MAX_VALUE), heap.remove());
+    }
+
+    @Test
+    public void stressTest_MonotoneWorkload_ShouldMatchBinaryMinHeap() {
+        Random random = new Random(7);
+        PriorityQueue<Long> expected = new BinaryMinHeap<>();
+        PriorityQueue<Long> actual = heap;
+        long last = 0;
+        for (int i = 0; i < 20000; i++) {
+            if (actual.isEmpty() || random.nextInt(3) > 0) {
+                long key = last + random.nextInt(1000);
+                expected.add(key);
+                actual.add(key);
+            } else {
+                last = expected.remove();
+                assertEquals("RadixHeap should agree with BinaryMinHeap", Long.valueOf(last), actual.remove());
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+    }
+
+    @Test
+    public void get_DistinctElementsSharingAKey_ShouldReturnWhatRemoveReturns() {
+        RadixHeap<String> named = new RadixHeap<>(name -> Long.parseLong(name.substring(name.indexOf('@') + 1)));
+        named.add("X@0");
+        named.remove();
+        named.add("A@5");
+        named.add("B@5");
+        assertSame(named.get(), named.remove());
+        named.add("C@5");
+        assertSame(named.get(), named.remove());
+        assertSame(named.get(), named.remove());
+        assertTrue(named.isEmpty());
+    }
+
+    @Test
+    public void get_RandomTiesInterleaved_ShouldAlwaysMatchNextRemove() {
+        RadixHeap<String> named = new RadixHeap<>(name -> Long.parseLong(name.substring(name.indexOf('@') + 1)));
+        Random random = new Random(3);
+        long last = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (named.isEmpty() || random.nextInt(3) > 0) {
+                named.add("e" + i + "@" + (last + random.nextInt(8)));
+            } else {
+                String peeked = named.get();
+                String removed = named.remove();
+                assertSame("get() should return the element remove() returns", peeked, removed);
+                last = Long.parseLong(removed.substring(removed.indexOf('@') + 1));
+            }
+        }
+    }
+}
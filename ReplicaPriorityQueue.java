@@ -0,0 +1,195 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only, warm copy of a DurablePriorityQueue, kept up to date from the log stream the
+ * leader sends to DurablePriorityQueue.attachFollower().
+ *
+ * The stream starts with a snapshot of the leader's heap and continues with every committed
+ * record, so the replica trails the leader by at most one group commit. run() applies the stream
+ * until it ends, for example on a thread of its own or on the receiving end of a socket.
+ * On failover, promote() stops applying records and hands over the replica's heap, which can
+ * then serve traffic at once instead of being rebuilt from the leader's files.
+ *
+ * @param <E> the type of elements in the replicated queue
+ */
+public class ReplicaPriorityQueue<E extends Comparable<E>> implements Runnable
+{
+    private final DataInputStream _in;
+    private final DurablePriorityQueue.Codec<E> _codec;
+    private BinaryMinHeap<E> _heap = new BinaryMinHeap<>();
+    private long _appliedLsn;
+    private boolean _connected;
+    private boolean _promoted;
+    private IOException _failure;
+
+    /**
+     * Constructs a new ReplicaPriorityQueue reading from the given stream.
+     *
+     * @param in the stream from the leader
+     * @param codec the codec the leader uses for elements
+     * @throws IllegalArgumentException if in or codec is null
+     */
+    public ReplicaPriorityQueue(InputStream in, DurablePriorityQueue.Codec<E> codec)
+    {
+        if (in == null || codec == null)
+        {
+            throw new IllegalArgumentException();
+        }
+        _in = new DataInputStream(new BufferedInputStream(in));
+        _codec = codec;
+    }
+
+    /**
+     * Applies records from the stream until it ends, fails or the replica is promoted.
+     */
+    public void run()
+    {
+        synchronized (this)
+        {
+            _connected = true;
+        }
+        try
+        {
+            DurablePriorityQueue.Record record;
+            while ((record = DurablePriorityQueue.Record.read(_in)) != null)
+            {
+                synchronized (this)
+                {
+                    if (_promoted)
+                    {
+                        return;
+                    }
+                    if (record._type == DurablePriorityQueue.SNAPSHOT)
+                    {
+                        _heap = DurablePriorityQueue.restoreSnapshot(record, _codec);
+                    }
+                    else if (record._lsn <= _appliedLsn)
+                    {
+                        continue;
+                    }
+                    else if (record._lsn != _appliedLsn + 1)
+                    {
+                        throw new StreamCorruptedException("Expected LSN " + (_appliedLsn + 1) + " but got " + record._lsn);
+                    }
+                    else
+                    {
+                        DurablePriorityQueue.apply(_heap, record, _codec);
+                    }
+                    _appliedLsn = record._lsn;
+                    notifyAll();
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            synchronized (this)
+            {
+                _failure = e;
+            }
+        }
+        finally
+        {
+            synchronized (this)
+            {
+                _connected = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until the replica has applied the given LSN or the stream has ended.
+     *
+     * @param lsn the LSN to wait for
+     * @param timeoutMillis the longest to wait
+     * @return true if the LSN has been applied
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public synchronized boolean awaitLsn(long lsn, long timeoutMillis) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (_appliedLsn < lsn && _failure == null && !_promoted)
+        {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0)
+            {
+                break;
+            }
+            wait(remaining);
+        }
+        return _appliedLsn >= lsn;
+    }
+
+    /**
+     * Stops applying the stream and returns the replica's heap for the caller to take over.
+     *
+     * @return the heap as of appliedLsn()
+     * @throws IllegalStateException if the replica was already promoted
+     */
+    public synchronized BinaryMinHeap<E> promote()
+    {
+        if (_promoted)
+        {
+            throw new IllegalStateException("Replica was already promoted");
+        }
+        _promoted = true;
+        notifyAll();
+        return _heap;
+    }
+
+    /**
+     * Retrieves, without removing, the smallest element of the replica.
+     *
+     * @return the smallest element
+     * @throws NoSuchElementException if the replica is empty
+     */
+    public synchronized E get()
+    {
+        return _heap.get();
+    }
+
+    /**
+     * Returns the number of elements in the replica.
+     *
+     * @return the number of elements
+     */
+    public synchronized int size()
+    {
+        return _heap.size();
+    }
+
+    /**
+     * Returns the LSN of the last record applied.
+     *
+     * @return the applied LSN
+     */
+    public synchronized long appliedLsn()
+    {
+        return _appliedLsn;
+    }
+
+    /**
+     * Returns whether run() is still reading from the leader.
+     *
+     * @return true while the stream is being applied
+     */
+    public synchronized boolean isConnected()
+    {
+        return _connected;
+    }
+
+    /**
+     * Returns the error that ended replication, if any.
+     *
+     * @return the failure, or null if the stream ended cleanly or is still open
+     */
+    public synchronized IOException failure()
+    {
+        return _failure;
+    }
+}
@@ -0,0 +1,325 @@
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.stream.StreamSupport;
+
+/**
+ * Tracks a fixed quantile, such as the median or p95, of a stream of samples.
+ *
+ * Samples are split between two BinaryMinHeaps: a max-side heap holding the smallest
+ * ceil(q * n) samples and a min-side heap holding the rest. The quantile is the top of the
+ * max-side heap, so quantile() is O(1) and add() is O(log n). Quantiles use the nearest-rank
+ * definition: the smallest sample with at least a fraction q of the samples at or below it.
+ *
+ * Old samples can be evicted, either by age with removeExpired() or automatically by count
+ * with a sliding window. Evicted samples are only marked deleted and are dropped lazily when
+ * they surface at the top of a heap; a heap is rebuilt once deleted samples dominate it.
+ *
+ * This class is not thread-safe.
+ */
+public class RunningQuantile
+{
+    private static final int COMPACTION_SLACK = 16;
+    // q * n is rounded before the ceiling is taken, so that 0.07 * 100 = 7.000000000000001
+    // still ranks 7th. Real fractional parts this small need n above a billion.
+    private static final double RANK_TOLERANCE = 1e-9;
+
+    private final double _quantile;
+    private final int _windowSize;
+    private BinaryMinHeap<Sample> _lower = new BinaryMinHeap<>();
+    private BinaryMinHeap<Sample> _upper = new BinaryMinHeap<>();
+    private final ArrayDeque<Sample> _window = new ArrayDeque<>();
+    private int _lowerLive;
+    private int _upperLive;
+    private long _sequence;
+
+    /**
+     * Constructs a new RunningQuantile that keeps samples until they are removed by age.
+     *
+     * @param quantile the quantile to track, between 0 and 1; 0.5 tracks the median
+     * @throws IllegalArgumentException if quantile is outside [0, 1]
+     */
+    public RunningQuantile(double quantile)
+    {
+        this(quantile, 0);
+    }
+
+    /**
+     * Constructs a new RunningQuantile over a sliding window of the most recent samples.
+     *
+     * @param quantile the quantile to track, between 0 and 1; 0.5 tracks the median
+     * @param windowSize the number of most recent samples to keep, or 0 for no count limit
+     * @throws IllegalArgumentException if quantile is outside [0, 1] or windowSize is negative
+     */
+    public RunningQuantile(double quantile, int windowSize)
+    {
+        if (!(quantile >= 0 && quantile <= 1) || windowSize < 0)
+        {
+            throw new IllegalArgumentException();
+        }
+        _quantile = quantile;
+        _windowSize = windowSize;
+    }
+
+    /**
+     * Adds a sample timestamped with its sequence number, or with the previous sample's
+     * timestamp if that is later.
+     *
+     * @param value the sample value
+     * @throws IllegalArgumentException if value is NaN
+     */
+    public void add(double value)
+    {
+        add(value, _window.isEmpty() ? _sequence : Math.max(_sequence, _window.peekLast()._timestamp));
+    }
+
+    /**
+     * Adds a sample with the given timestamp. Timestamps must not go backwards.
+     * If a window size was given, the oldest sample is evicted once the window is full.
+     *
+     * @param value the sample value
+     * @param timestamp the time of the sample, used by removeExpired()
+     * @throws IllegalArgumentException if value is NaN or timestamp is earlier than the previous one
+     */
+    public void add(double value, long timestamp)
+    {
+        if (Double.isNaN(value))
+        {
+            throw new IllegalArgumentException("Cannot add NaN to the RunningQuantile");
+        }
+        if (!_window.isEmpty() && timestamp < _window.peekLast()._timestamp)
+        {
+            throw new IllegalArgumentException("Timestamps must not go backwards");
+        }
+        Sample sample = new Sample(value, timestamp, _sequence++);
+        _window.addLast(sample);
+        if (_lowerLive == 0 || sample._value <= _lower.get()._value)
+        {
+            _push(_lower, sample, true);
+        }
+        else
+        {
+            _push(_upper, sample, false);
+        }
+        if (_windowSize > 0 && _window.size() > _windowSize)
+        {
+            _evict(_window.pollFirst());
+        }
+        _rebalance();
+    }
+
+    /**
+     * Evicts every sample with a timestamp earlier than the given one.
+     *
+     * @param oldestTimestamp the earliest timestamp to keep
+     * @return the number of samples evicted
+     */
+    public int removeExpired(long oldestTimestamp)
+    {
+        int evicted = 0;
+        while (!_window.isEmpty() && _window.peekFirst()._timestamp < oldestTimestamp)
+        {
+            _evict(_window.pollFirst());
+            evicted++;
+        }
+        if (evicted > 0)
+        {
+            _rebalance();
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the tracked quantile of the current samples in O(1).
+     *
+     * @return the nearest-rank quantile of the current samples
+     * @throws NoSuchElementException if there are no samples
+     */
+    public double quantile()
+    {
+        if (isEmpty())
+        {
+            throw new NoSuchElementException();
+        }
+        return _lower.get()._value;
+    }
+
+    /**
+     * Returns the quantile this instance tracks.
+     *
+     * @return the quantile between 0 and 1
+     */
+    public double trackedQuantile()
+    {
+        return _quantile;
+    }
+
+    /**
+     * Returns the number of current samples.
+     *
+     * @return the number of samples
+     */
+    public int size()
+    {
+        return _lowerLive + _upperLive;
+    }
+
+    /**
+     * Returns size() == 0
+     * @return returns size() == 0
+     */
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    /**
+     * Clears all samples.
+     */
+    public void clear()
+    {
+        _lower.clear();
+        _upper.clear();
+        _window.clear();
+        _lowerLive = 0;
+        _upperLive = 0;
+    }
+
+    /**
+     * Marks a sample deleted and takes it out of its side's live count.
+     *
+     * @param sample the sample to evict
+     */
+    private void _evict(Sample sample)
+    {
+        sample._deleted = true;
+        if (sample._lower)
+        {
+            _lowerLive--;
+        }
+        else
+        {
+            _upperLive--;
+        }
+    }
+
+    /**
+     * Moves samples between the heaps until the max-side heap holds exactly the
+     * ceil(q * n) smallest samples, then drops deleted samples from both tops and
+     * rebuilds any heap that has become mostly deleted samples.
+     */
+    private void _rebalance()
+    {
+        int size = size();
+        int target = size == 0 ? 0 : Math.max(1, Math.min(size, (int) Math.ceil(_quantile * size - RANK_TOLERANCE)));
+        _prune();
+        while (_lowerLive > target)
+        {
+            _push(_upper, _pop(_lower), false);
+            _prune();
+        }
+        while (_lowerLive < target)
+        {
+            _push(_lower, _pop(_upper), true);
+            _prune();
+        }
+        _lower = _compact(_lower, _lowerLive);
+        _upper = _compact(_upper, _upperLive);
+    }
+
+    private void _prune()
+    {
+        while (!_lower.isEmpty() && _lower.get()._deleted)
+        {
+            _lower.remove();
+        }
+        while (!_upper.isEmpty() && _upper.get()._deleted)
+        {
+            _upper.remove();
+        }
+    }
+
+    private Sample _pop(BinaryMinHeap<Sample> heap)
+    {
+        Sample sample = heap.remove();
+        if (sample._lower)
+        {
+            _lowerLive--;
+        }
+        else
+        {
+            _upperLive--;
+        }
+        return sample;
+    }
+
+    /**
+     * Adds a sample to one of the heaps. The sample's side, and with it the direction of its
+     * ordering, is only changed here, while the sample is in neither heap.
+     *
+     * @param heap the heap to add to
+     * @param sample the sample to add
+     * @param lower true if the heap is the max-side heap
+     */
+    private void _push(BinaryMinHeap<Sample> heap, Sample sample, boolean lower)
+    {
+        sample._lower = lower;
+        heap.add(sample);
+        if (lower)
+        {
+            _lowerLive++;
+        }
+        else
+        {
+            _upperLive++;
+        }
+    }
+
+    /**
+     * Rebuilds a heap from its live samples in O(n) once deleted samples outnumber them.
+     *
+     * @param heap the heap to compact
+     * @param live the number of live samples in it
+     * @return the heap to use from now on, which is the given heap if no rebuild was needed
+     */
+    private BinaryMinHeap<Sample> _compact(BinaryMinHeap<Sample> heap, int live)
+    {
+        if (heap.size() <= 2 * live + COMPACTION_SLACK)
+        {
+            return heap;
+        }
+        Sample[] samples = StreamSupport.stream(heap.spliterator(), false)
+                .filter(sample -> !sample._deleted)
+                .toArray(Sample[]::new);
+        return BinaryMinHeap.heapify(samples);
+    }
+
+    /**
+     * A sample ordered by value, then by arrival. Samples on the max side compare in
+     * reverse so that a BinaryMinHeap keeps the largest of them at the root.
+     */
+    private static final class Sample implements Comparable<Sample>
+    {
+        private final double _value;
+        private final long _timestamp;
+        private final long _sequence;
+        private boolean _lower;
+        private boolean _deleted;
+
+        private Sample(double value, long timestamp, long sequence)
+        {
+            _value = value;
+            _timestamp = timestamp;
+            _sequence = sequence;
+        }
+
+        public int compareTo(Sample other)
+        {
+            int result = Double.compare(_value, other._value);
+            if (result == 0)
+            {
+                result = Long.compare(_sequence, other._sequence);
+            }
+            return _lower ? -result : result;
+        }
+    }
+}
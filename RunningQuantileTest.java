@@ -0,0 +1,109 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class RunningQuantileTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_QuantileAboveOne_ShouldThrowIllegalArgumentException() {
+        new RunningQuantile(1.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_NaN_ShouldThrowIllegalArgumentException() {
+        new RunningQuantile(0.5).add(Double.NaN);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void quantile_OnEmpty_ShouldThrowNoSuchElementException() {
+        new RunningQuantile(0.5).quantile();
+    }
+
+    @Test
+    public void quantile_Median_ShouldTrackMiddleValue() {
+        RunningQuantile median = new RunningQuantile(0.5);
+        median.add(5);
+        assertEquals(5, median.quantile(), 0);
+        median.add(1);
+        assertEquals("Even counts should return the lower median", 1, median.quantile(), 0);
+        median.add(9);
+        assertEquals(5, median.quantile(), 0);
+        median.add(7);
+        median.add(3);
+        assertEquals(5, median.quantile(), 0);
+    }
+
+    @Test
+    public void quantile_P95_ShouldUseNearestRank() {
+        RunningQuantile p95 = new RunningQuantile(0.95);
+        for (int i = 100; i >= 1; i--) {
+            p95.add(i);
+        }
+        assertEquals(95, p95.quantile(), 0);
+    }
+
+    @Test
+    public void quantile_ProductWithRoundingError_ShouldUseExactNearestRank() {
+        // 0.07 * 100 and 0.55 * 100 come out just above 7 and 55 in floating point.
+        RunningQuantile p7 = new RunningQuantile(0.07);
+        RunningQuantile p55 = new RunningQuantile(0.55);
+        for (int i = 1; i <= 100; i++) {
+            p7.add(i);
+            p55.add(i);
+        }
+        assertEquals(7, p7.quantile(), 0);
+        assertEquals(55, p55.quantile(), 0);
+    }
+
+    @Test
+    public void removeExpired_ShouldEvictOldSamples() {
+        RunningQuantile median = new RunningQuantile(0.5);
+        median.add(100, 1);
+        median.add(200, 2);
+        median.add(1, 3);
+        median.add(2, 4);
+        median.add(3, 5);
+        assertEquals(3, median.quantile(), 0);
+        assertEquals(2, median.removeExpired(3));
+        assertEquals(3, median.size());
+        assertEquals("Only 1, 2 and 3 should remain", 2, median.quantile(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_TimestampGoingBackwards_ShouldThrowIllegalArgumentException() {
+        RunningQuantile median = new RunningQuantile(0.5);
+        median.add(1, 10);
+        median.add(2, 9);
+    }
+
+    @Test
+    public void slidingWindow_ShouldMatchSortedWindow() {
+        Random random = new Random(3);
+        int window = 101;
+        RunningQuantile p90 = new RunningQuantile(0.9, window);
+        double[] values = new double[5000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(50);
+            p90.add(values[i]);
+            int from = Math.max(0, i + 1 - window);
+            double[] current = Arrays.copyOfRange(values, from, i + 1);
+            Arrays.sort(current);
+            int rank = Math.max(1, (int) Math.ceil(0.9 * current.length));
+            assertEquals("Quantile should match the sorted window", current[rank - 1], p90.quantile(), 0);
+            assertEquals(current.length, p90.size());
+        }
+    }
+
+    @Test
+    public void clear_ShouldRemoveAllSamples() {
+        RunningQuantile median = new RunningQuantile(0.5);
+        median.add(1);
+        median.clear();
+        assertTrue(median.isEmpty());
+        median.add(4);
+        assertEquals(4, median.quantile(), 0);
+    }
+}
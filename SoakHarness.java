@@ -0,0 +1,344 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A long-running soak test that reports tail latency for a PriorityQueue under a fixed load.
+ * Run with: java SoakHarness [--option value]...
+ *
+ *   --queue      binary, bottomup, blocked, bucket, counting or versioned (default binary)
+ *   --rate       total operations per second across all threads (default 100000)
+ *   --threads    number of load threads sharing the queue (default 4)
+ *   --seconds    length of the measured run (default 60)
+ *   --warmup     seconds run before measuring starts (default 10)
+ *   --size       elements added before the run starts (default 10000)
+ *   --keys       uniform, narrow, skewed or ascending (default uniform)
+ *   --slo-p999   p99.9 latency limit in microseconds; the exit status is 1 if it is exceeded
+ *
+ * The load is open-loop: each thread issues operations on a fixed schedule whether or not
+ * earlier ones have finished, and latency is measured from when an operation was scheduled
+ * to start rather than when it actually started. A stall therefore shows up in the latency
+ * of every operation that should have run during it, not just the one that was stuck,
+ * which avoids the coordinated omission that makes closed-loop benchmarks understate the tail.
+ * Service time, measured from the actual start, is reported alongside for comparison.
+ *
+ * Each operation is an add() or a remove() with equal probability, so the queue stays near
+ * its initial size. The queue is shared behind a single lock, as a caller would have to do.
+ */
+public class SoakHarness
+{
+    private final Supplier<PriorityQueue<Integer>> _factory;
+    private final String _keys;
+    private final int _rate;
+    private final int _threads;
+    private final int _size;
+    private final long _warmupNanos;
+    private final long _measureNanos;
+
+    private SoakHarness(Supplier<PriorityQueue<Integer>> factory, String keys, int rate, int threads, int size,
+                        int warmupSeconds, int seconds)
+    {
+        _factory = factory;
+        _keys = keys;
+        _rate = rate;
+        _threads = threads;
+        _size = size;
+        _warmupNanos = warmupSeconds * 1_000_000_000L;
+        _measureNanos = seconds * 1_000_000_000L;
+    }
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        String queue = _option(args, "--queue", "binary");
+        String keys = _option(args, "--keys", "uniform");
+        int rate = Integer.parseInt(_option(args, "--rate", "100000"));
+        int threads = Integer.parseInt(_option(args, "--threads", "4"));
+        int seconds = Integer.parseInt(_option(args, "--seconds", "60"));
+        int warmup = Integer.parseInt(_option(args, "--warmup", "10"));
+        int size = Integer.parseInt(_option(args, "--size", "10000"));
+        long slo = Long.parseLong(_option(args, "--slo-p999", "0"));
+        // Fail on an unknown distribution before any threads start.
+        _nextKey(keys, new SplittableRandom(), new long[1]);
+
+        System.out.printf("soak: %s, %d ops/s, %d threads, %d s (+%d s warmup), %d elements, %s keys%n",
+                queue, rate, threads, seconds, warmup, size, keys);
+        SoakHarness harness = new SoakHarness(_factory(queue), keys, rate, threads, size, warmup, seconds);
+        LatencyHistogram latency = harness.run();
+        if (slo > 0 && latency.percentile(99.9) > slo * 1000)
+        {
+            System.out.printf("FAIL: p99.9 %.1f us exceeds the SLO of %d us%n", latency.percentile(99.9) / 1e3, slo);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the soak and prints the report.
+     *
+     * @return the latency histogram of the measured run, in nanoseconds
+     */
+    private LatencyHistogram run() throws InterruptedException
+    {
+        PriorityQueue<Integer> queue = _factory.get();
+        SplittableRandom random = new SplittableRandom(42);
+        long[] sequence = new long[1];
+        for (int i = 0; i < _size; i++)
+        {
+            queue.add(_nextKey(_keys, random, sequence));
+        }
+
+        long start = System.nanoTime() + 100_000_000L;
+        long measureStart = start + _warmupNanos;
+        long end = measureStart + _measureNanos;
+        long interval = Math.max(1, 1_000_000_000L * _threads / _rate);
+        Worker[] workers = new Worker[_threads];
+        Thread[] threads = new Thread[_threads];
+        for (int i = 0; i < _threads; i++)
+        {
+            // Stagger the threads so their schedules interleave instead of arriving together.
+            workers[i] = new Worker(queue, random.split(), start + interval * i / _threads, interval,
+                    measureStart, end);
+            threads[i] = new Thread(workers[i], "soak-" + i);
+            threads[i].start();
+        }
+
+        _sleepUntil(measureStart);
+        long gcCount = _gcCount();
+        long gcTime = _gcTime();
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        gcCount = _gcCount() - gcCount;
+        gcTime = _gcTime() - gcTime;
+
+        LatencyHistogram latency = new LatencyHistogram();
+        LatencyHistogram service = new LatencyHistogram();
+        long allocated = 0;
+        for (Worker worker : workers)
+        {
+            latency.add(worker._latency);
+            service.add(worker._service);
+            allocated = allocated < 0 || worker._allocated < 0 ? -1 : allocated + worker._allocated;
+        }
+        double seconds = _measureNanos / 1e9;
+        System.out.printf("  %-12s %10.0f ops/s achieved of %d ops/s offered%n", "throughput",
+                latency.count() / seconds, _rate);
+        _reportPercentiles("latency", latency);
+        _reportPercentiles("service", service);
+        System.out.printf("  %-12s %10d collections, %d ms total%n", "gc", gcCount, gcTime);
+        if (allocated >= 0)
+        {
+            System.out.printf("  %-12s %10.1f MB/s, %.1f bytes/op%n", "allocation",
+                    allocated / seconds / 1e6, (double) allocated / Math.max(1, latency.count()));
+        }
+        return latency;
+    }
+
+    /**
+     * Drives the queue on a fixed schedule from one thread and records what it sees.
+     */
+    private final class Worker implements Runnable
+    {
+        private final PriorityQueue<Integer> _queue;
+        private final SplittableRandom _random;
+        private final long _first;
+        private final long _interval;
+        private final long _measureStart;
+        private final long _end;
+        private final long[] _sequence = new long[1];
+        private final LatencyHistogram _latency = new LatencyHistogram();
+        private final LatencyHistogram _service = new LatencyHistogram();
+        private long _allocated = -1;
+
+        private Worker(PriorityQueue<Integer> queue, SplittableRandom random, long first, long interval,
+                       long measureStart, long end)
+        {
+            _queue = queue;
+            _random = random;
+            _first = first;
+            _interval = interval;
+            _measureStart = measureStart;
+            _end = end;
+        }
+
+        public void run()
+        {
+            long allocatedAtStart = -1;
+            for (long intended = _first; intended < _end; intended += _interval)
+            {
+                if (allocatedAtStart < 0 && intended >= _measureStart)
+                {
+                    allocatedAtStart = _allocatedBytes();
+                }
+                long started = _waitUntil(intended);
+                boolean add = _random.nextBoolean();
+                Integer key = _nextKey(_keys, _random, _sequence);
+                synchronized (_queue)
+                {
+                    if (add || _queue.isEmpty())
+                    {
+                        _queue.add(key);
+                    }
+                    else
+                    {
+                        _queue.remove();
+                    }
+                }
+                long finished = System.nanoTime();
+                if (intended >= _measureStart)
+                {
+                    _latency.record(finished - intended);
+                    _service.record(finished - started);
+                }
+            }
+            if (allocatedAtStart >= 0)
+            {
+                long allocatedAtEnd = _allocatedBytes();
+                _allocated = allocatedAtEnd >= 0 ? allocatedAtEnd - allocatedAtStart : -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the next key from the named distribution.
+     *
+     * @param keys uniform (any int), narrow (256 distinct values), skewed (mostly small values)
+     *             or ascending (increasing with a little jitter, like timestamps)
+     * @param random the source of randomness
+     * @param sequence the per-thread counter used by ascending keys
+     * @return the key
+     * @throws IllegalArgumentException if the distribution is unknown
+     */
+    private static Integer _nextKey(String keys, SplittableRandom random, long[] sequence)
+    {
+        switch (keys)
+        {
+            case "uniform":
+                return random.nextInt();
+            case "narrow":
+                return random.nextInt(256);
+            case "skewed":
+                double r = random.nextDouble();
+                return (int) (Integer.MAX_VALUE * r * r * r * r);
+            case "ascending":
+                return (int) (sequence[0]++ + random.nextInt(64));
+            default:
+                throw new IllegalArgumentException("Unknown key distribution " + keys);
+        }
+    }
+
+    private static Supplier<PriorityQueue<Integer>> _factory(String queue)
+    {
+        switch (queue)
+        {
+            case "binary":
+                return BinaryMinHeap::new;
+            case "bottomup":
+                return () ->
+                {
+                    BinaryMinHeap<Integer> heap = new BinaryMinHeap<>();
+                    heap.setRemovalStrategy(BinaryMinHeap.RemovalStrategy.BOTTOM_UP);
+                    return heap;
+                };
+            case "blocked":
+                return BlockedBinaryHeap::new;
+            case "bucket":
+                return () -> new BucketPriorityQueue<Integer>(256, key -> key & 255);
+            case "counting":
+                return CountingPriorityQueue::new;
+            case "versioned":
+                return VersionedPriorityQueue::new;
+            default:
+                throw new IllegalArgumentException("Unknown queue " + queue);
+        }
+    }
+
+    /**
+     * Spins until the given time, parking first if it is more than a little way off.
+     *
+     * @param deadline the System.nanoTime() to wait for
+     * @return the time the wait ended, which is later than deadline if the thread is behind schedule
+     */
+    private static long _waitUntil(long deadline)
+    {
+        long now = System.nanoTime();
+        while (now < deadline)
+        {
+            if (deadline - now > 100_000)
+            {
+                LockSupport.parkNanos(deadline - now - 50_000);
+            }
+            else
+            {
+                Thread.onSpinWait();
+            }
+            now = System.nanoTime();
+        }
+        return now;
+    }
+
+    private static void _sleepUntil(long deadline) throws InterruptedException
+    {
+        long remaining = deadline - System.nanoTime();
+        if (remaining > 0)
+        {
+            Thread.sleep(remaining / 1_000_000, (int) (remaining % 1_000_000));
+        }
+    }
+
+    /**
+     * @return the bytes allocated so far by the current thread, or -1 if the JVM cannot tell
+     */
+    private static long _allocatedBytes()
+    {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean)
+        {
+            return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    private static long _gcCount()
+    {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long _gcTime()
+    {
+        long time = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+
+    private static void _reportPercentiles(String name, LatencyHistogram histogram)
+    {
+        System.out.printf("  %-12s p50 %8.1f  p90 %8.1f  p99 %8.1f  p99.9 %8.1f  p99.99 %8.1f  max %8.1f us%n",
+                name, histogram.percentile(50) / 1e3, histogram.percentile(90) / 1e3,
+                histogram.percentile(99) / 1e3, histogram.percentile(99.9) / 1e3,
+                histogram.percentile(99.99) / 1e3, histogram.max() / 1e3);
+    }
+
+    private static String _option(String[] args, String name, String defaultValue)
+    {
+        for (int i = 0; i + 1 < args.length; i++)
+        {
+            if (args[i].equals(name))
+            {
+                return args[i + 1];
+            }
+        }
+        return defaultValue;
+    }
+}
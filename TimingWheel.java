@@ -0,0 +1,363 @@
+/**
+ * A hierarchical timing wheel for scheduling large numbers of timeouts.
+ * Scheduling and cancelling a timeout are O(1); expiry is driven by advancing the
+ * wheel to the current tick, which cascades timeouts from coarse levels into finer ones.
+ *
+ * Time is measured in caller-defined ticks (for example milliseconds since start).
+ * Deadlines further out than the wheel can represent are kept in an overflow
+ * BinaryMinHeap ordered by deadline and moved into the wheel once they come into range.
+ *
+ * This class is not thread-safe.
+ *
+ * @param <T> the type of task attached to each timeout
+ */
+public class TimingWheel<T>
+{
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int DEFAULT_LEVELS = 4;
+
+    private final Slot<T>[][] _wheel;
+    private final Slot<T> _ready = new Slot<>();
+    private final BinaryMinHeap<Timeout<T>> _overflow = new BinaryMinHeap<>();
+    private final long _span;
+    private long _currentTick;
+    private int _wheelCount;
+    private int _size;
+
+    /**
+     * Constructs a new TimingWheel with four levels of 64 slots, starting at tick 0.
+     */
+    public TimingWheel()
+    {
+        this(DEFAULT_LEVELS, 0);
+    }
+
+    /**
+     * Constructs a new TimingWheel.
+     *
+     * @param levels the number of wheel levels; level i holds deadlines up to 64^(i+1) ticks away
+     * @param startTick the tick the wheel starts at
+     * @throws IllegalArgumentException if levels is less than 1 or greater than 10
+     */
+    public TimingWheel(int levels, long startTick)
+    {
+        if (levels < 1 || levels * SLOT_BITS >= Long.SIZE)
+        {
+            throw new IllegalArgumentException();
+        }
+        _wheel = (Slot<T>[][]) new Slot[levels][SLOTS];
+        for (int level = 0; level < levels; level++)
+        {
+            for (int slot = 0; slot < SLOTS; slot++)
+            {
+                _wheel[level][slot] = new Slot<>();
+            }
+        }
+        _span = 1L << (levels * SLOT_BITS);
+        _currentTick = startTick;
+    }
+
+    /**
+     * Schedules a task to become due at the given tick.
+     * A deadline at or before the current tick makes the task due immediately.
+     *
+     * @param task the task to schedule
+     * @param deadline the tick at which the task becomes due
+     * @return a handle that can be used to cancel the timeout
+     * @throws IllegalArgumentException if the task is null
+     */
+    public Timeout<T> schedule(T task, long deadline)
+    {
+        if (task == null)
+        {
+            throw new IllegalArgumentException("Cannot schedule null in the TimingWheel");
+        }
+        Timeout<T> timeout = new Timeout<>(this, task, deadline);
+        _insert(timeout);
+        _size++;
+        return timeout;
+    }
+
+    /**
+     * Advances the wheel to the given tick, moving every timeout whose deadline has
+     * passed onto the ready list. Ticks earlier than the current tick are ignored.
+     *
+     * @param now the tick to advance to
+     */
+    public void advance(long now)
+    {
+        while (_currentTick < now)
+        {
+            if (_wheelCount == 0)
+            {
+                // Nothing in the wheel to cascade, so skip straight to now.
+                _currentTick = now;
+                _pullOverflow();
+                return;
+            }
+            _currentTick++;
+            _cascade();
+            _pullOverflow();
+            _wheelCount -= _ready.transferFrom(_wheel[0][(int) (_currentTick & SLOT_MASK)]);
+        }
+    }
+
+    /**
+     * Advances the wheel to the given tick and removes the next due task.
+     *
+     * @param now the current tick
+     * @return a task whose deadline is at or before now, or null if none is due
+     */
+    public T poll(long now)
+    {
+        advance(now);
+        Timeout<T> timeout = _ready.first();
+        if (timeout == null)
+        {
+            return null;
+        }
+        timeout.unlink();
+        timeout._state = Timeout.EXPIRED;
+        _size--;
+        return timeout._task;
+    }
+
+    /**
+     * Returns the tick the wheel has been advanced to.
+     *
+     * @return the current tick
+     */
+    public long currentTick()
+    {
+        return _currentTick;
+    }
+
+    /**
+     * Returns the number of scheduled timeouts that have neither been polled nor cancelled.
+     *
+     * @return the number of pending timeouts
+     */
+    public int size()
+    {
+        return _size;
+    }
+
+    /**
+     * Returns _size == 0
+     * @return returns _size == 0
+     */
+    public boolean isEmpty()
+    {
+        return _size == 0;
+    }
+
+    /**
+     * Places a timeout in the ready list, a wheel slot, or the overflow heap
+     * depending on how far its deadline is from the current tick.
+     *
+     * @param timeout the timeout to place
+     */
+    private void _insert(Timeout<T> timeout)
+    {
+        long delta = timeout._deadline - _currentTick;
+        if (delta <= 0)
+        {
+            _ready.append(timeout);
+            return;
+        }
+        if (delta >= _span)
+        {
+            timeout._state = Timeout.OVERFLOW;
+            _overflow.add(timeout);
+            return;
+        }
+        int level = (63 - Long.numberOfLeadingZeros(delta)) / SLOT_BITS;
+        int slot = (int) ((timeout._deadline >>> (level * SLOT_BITS)) & SLOT_MASK);
+        _wheel[level][slot].append(timeout);
+        _wheelCount++;
+    }
+
+    /**
+     * Re-inserts the timeouts of every coarse slot that the current tick has just reached,
+     * from the top level down, so they land in finer levels before level 0 is expired.
+     */
+    private void _cascade()
+    {
+        for (int level = _wheel.length - 1; level > 0; level--)
+        {
+            long lowBits = _currentTick & ((1L << (level * SLOT_BITS)) - 1);
+            if (lowBits != 0)
+            {
+                continue;
+            }
+            Slot<T> slot = _wheel[level][(int) ((_currentTick >>> (level * SLOT_BITS)) & SLOT_MASK)];
+            Timeout<T> timeout;
+            while ((timeout = slot.first()) != null)
+            {
+                timeout.unlink();
+                _wheelCount--;
+                _insert(timeout);
+            }
+        }
+    }
+
+    /**
+     * Moves overflow timeouts whose deadlines are now within the wheel's range into the wheel,
+     * discarding any that were cancelled while waiting in the heap.
+     */
+    private void _pullOverflow()
+    {
+        while (!_overflow.isEmpty() && _overflow.get()._deadline - _currentTick < _span)
+        {
+            Timeout<T> timeout = _overflow.remove();
+            if (timeout._state == Timeout.OVERFLOW)
+            {
+                timeout._state = Timeout.PENDING;
+                _insert(timeout);
+            }
+        }
+    }
+
+    /**
+     * A handle to a scheduled task that can be used to cancel it.
+     *
+     * @param <T> the type of the task
+     */
+    public static final class Timeout<T> implements Comparable<Timeout<T>>
+    {
+        private static final int PENDING = 0;
+        private static final int OVERFLOW = 1;
+        private static final int EXPIRED = 2;
+        private static final int CANCELLED = 3;
+
+        private final TimingWheel<T> _owner;
+        private final T _task;
+        private final long _deadline;
+        private int _state = PENDING;
+        private Slot<T> _slot;
+        private Timeout<T> _prev;
+        private Timeout<T> _next;
+
+        private Timeout(TimingWheel<T> owner, T task, long deadline)
+        {
+            _owner = owner;
+            _task = task;
+            _deadline = deadline;
+        }
+
+        /**
+         * @return the scheduled task
+         */
+        public T task()
+        {
+            return _task;
+        }
+
+        /**
+         * @return the tick at which the task becomes due
+         */
+        public long deadline()
+        {
+            return _deadline;
+        }
+
+        /**
+         * @return true if cancel() succeeded for this timeout
+         */
+        public boolean isCancelled()
+        {
+            return _state == CANCELLED;
+        }
+
+        /**
+         * Cancels the timeout in O(1). Timeouts in the overflow heap are only marked
+         * and are discarded once they reach the top of the heap.
+         *
+         * @return true if the timeout was pending and is now cancelled,
+         *         false if it had already been polled or cancelled
+         */
+        public boolean cancel()
+        {
+            if (_state == EXPIRED || _state == CANCELLED)
+            {
+                return false;
+            }
+            if (_slot != null)
+            {
+                if (_slot != _owner._ready)
+                {
+                    _owner._wheelCount--;
+                }
+                unlink();
+            }
+            _state = CANCELLED;
+            _owner._size--;
+            return true;
+        }
+
+        /**
+         * Orders timeouts by deadline so they can be kept in the overflow heap.
+         *
+         * @param other the timeout to compare to
+         * @return a negative number, zero or a positive number as this deadline is earlier, equal or later
+         */
+        public int compareTo(Timeout<T> other)
+        {
+            return Long.compare(_deadline, other._deadline);
+        }
+
+        private void unlink()
+        {
+            _prev._next = _next;
+            _next._prev = _prev;
+            _prev = null;
+            _next = null;
+            _slot = null;
+        }
+    }
+
+    /**
+     * A circular doubly linked list of timeouts with a sentinel node.
+     *
+     * @param <T> the type of the task
+     */
+    private static final class Slot<T>
+    {
+        private final Timeout<T> _head = new Timeout<>(null, null, 0);
+
+        private Slot()
+        {
+            _head._prev = _head;
+            _head._next = _head;
+        }
+
+        private void append(Timeout<T> timeout)
+        {
+            timeout._slot = this;
+            timeout._prev = _head._prev;
+            timeout._next = _head;
+            _head._prev._next = timeout;
+            _head._prev = timeout;
+        }
+
+        private Timeout<T> first()
+        {
+            return _head._next == _head ? null : _head._next;
+        }
+
+        private int transferFrom(Slot<T> other)
+        {
+            int moved = 0;
+            Timeout<T> timeout;
+            while ((timeout = other.first()) != null)
+            {
+                timeout.unlink();
+                append(timeout);
+                moved++;
+            }
+            return moved;
+        }
+    }
+}
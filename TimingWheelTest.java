@@ -0,0 +1,100 @@
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TimingWheelTest {
+
+    private TimingWheel<String> wheel;
+
+    @Before
+    public void setUp() {
+        wheel = new TimingWheel<>();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void schedule_NullTask_ShouldThrowIllegalArgumentException() {
+        wheel.schedule(null, 10);
+    }
+
+    @Test
+    public void poll_BeforeDeadline_ShouldReturnNull() {
+        wheel.schedule("a", 10);
+        assertNull("Task should not be due before its deadline", wheel.poll(9));
+        assertEquals("Task should still be pending", 1, wheel.size());
+    }
+
+    @Test
+    public void poll_AtDeadline_ShouldReturnTask() {
+        wheel.schedule("a", 10);
+        assertEquals("Task should be due at its deadline", "a", wheel.poll(10));
+        assertTrue("Wheel should be empty after polling the only task", wheel.isEmpty());
+    }
+
+    @Test
+    public void schedule_DeadlineInThePast_ShouldBeDueImmediately() {
+        wheel.advance(100);
+        wheel.schedule("late", 50);
+        assertEquals("Past deadlines should be due immediately", "late", wheel.poll(100));
+    }
+
+    @Test
+    public void poll_DeadlinesOnHigherLevels_ShouldCascadeAndFireOnTime() {
+        wheel.schedule("level1", 1_000);
+        wheel.schedule("level2", 100_000);
+        assertNull(wheel.poll(999));
+        assertEquals("level1", wheel.poll(1_000));
+        assertNull(wheel.poll(99_999));
+        assertEquals("level2", wheel.poll(100_000));
+    }
+
+    @Test
+    public void poll_DeadlineBeyondWheelRange_ShouldUseOverflowHeap() {
+        TimingWheel<String> small = new TimingWheel<>(1, 0);
+        small.schedule("far", 1_000);
+        small.schedule("near", 10);
+        assertEquals("near", small.poll(10));
+        assertNull(small.poll(999));
+        assertEquals("far", small.poll(1_000));
+    }
+
+    @Test
+    public void cancel_PendingTimeout_ShouldNeverFire() {
+        TimingWheel.Timeout<String> timeout = wheel.schedule("a", 10);
+        assertTrue("Cancelling a pending timeout should succeed", timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        assertEquals("Cancelled timeouts should not be counted", 0, wheel.size());
+        assertNull("Cancelled timeouts should not fire", wheel.poll(20));
+    }
+
+    @Test
+    public void cancel_OverflowTimeout_ShouldNeverFire() {
+        TimingWheel<String> small = new TimingWheel<>(1, 0);
+        TimingWheel.Timeout<String> timeout = small.schedule("far", 1_000);
+        assertTrue(timeout.cancel());
+        assertNull(small.poll(2_000));
+        assertTrue(small.isEmpty());
+    }
+
+    @Test
+    public void cancel_AfterFiring_ShouldReturnFalse() {
+        TimingWheel.Timeout<String> timeout = wheel.schedule("a", 10);
+        wheel.poll(10);
+        assertFalse("A fired timeout cannot be cancelled", timeout.cancel());
+    }
+
+    @Test
+    public void poll_ManyTimeouts_ShouldNeverFireEarly() {
+        for (int i = 0; i < 5_000; i++) {
+            wheel.schedule(Integer.toString(i * 7), i * 7);
+        }
+        int fired = 0;
+        for (long now = 0; now <= 35_000; now += 13) {
+            String task;
+            while ((task = wheel.poll(now)) != null) {
+                assertTrue("Task should not fire before its deadline", Long.parseLong(task) <= now);
+                fired++;
+            }
+        }
+        assertEquals("Every timeout should eventually fire", 5_000, fired);
+    }
+}
@@ -0,0 +1,193 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Finds the k largest elements of a large input in parallel.
+ *
+ * The input is split across a ForkJoinPool. Each worker keeps its own BinaryMinHeap of at
+ * most k elements, holding the k largest it has seen with the smallest of them at the root.
+ * A new element only touches the heap if it beats the root, and then replaces it in place,
+ * so once the heap is full nothing is allocated per element. The partial heaps are merged
+ * the same way as the tasks complete. The total cost is O(n log k) comparisons, spread
+ * across the pool, and no worker shares a heap with another.
+ */
+public final class TopK
+{
+    private static final int MIN_SPLIT = 1 << 12;
+
+    private TopK()
+    {
+    }
+
+    /**
+     * Returns the k largest elements of the array, using the common pool.
+     *
+     * @param k the number of elements to return
+     * @param elements the input
+     * @param <E> the type of elements
+     * @return up to k elements, largest first
+     * @throws IllegalArgumentException if k is less than 1 or elements is or contains null
+     */
+    public static <E extends Comparable<E>> List<E> largest(int k, E[] elements)
+    {
+        return largest(k, elements, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns the k largest elements of the array.
+     *
+     * @param k the number of elements to return
+     * @param elements the input
+     * @param pool the pool to run on
+     * @param <E> the type of elements
+     * @return up to k elements, largest first
+     * @throws IllegalArgumentException if k is less than 1 or elements is or contains null
+     */
+    public static <E extends Comparable<E>> List<E> largest(int k, E[] elements, ForkJoinPool pool)
+    {
+        if (elements == null)
+        {
+            throw new IllegalArgumentException();
+        }
+        return largest(k, Arrays.spliterator(elements), pool);
+    }
+
+    /**
+     * Returns the k largest elements of the stream, using the common pool.
+     * The stream is consumed through its spliterator, so it is split across the pool
+     * whether or not it was marked parallel.
+     *
+     * @param k the number of elements to return
+     * @param stream the input
+     * @param <E> the type of elements
+     * @return up to k elements, largest first
+     * @throws IllegalArgumentException if k is less than 1 or stream is or contains null
+     */
+    public static <E extends Comparable<E>> List<E> largest(int k, Stream<E> stream)
+    {
+        if (stream == null)
+        {
+            throw new IllegalArgumentException();
+        }
+        return largest(k, stream.spliterator(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns the k largest elements covered by the spliterator.
+     *
+     * @param k the number of elements to return
+     * @param spliterator the input
+     * @param pool the pool to run on
+     * @param <E> the type of elements
+     * @return up to k elements, largest first
+     * @throws IllegalArgumentException if k is less than 1, spliterator or pool is null,
+     *         or the input contains null
+     */
+    public static <E extends Comparable<E>> List<E> largest(int k, Spliterator<E> spliterator, ForkJoinPool pool)
+    {
+        if (k < 1 || spliterator == null || pool == null)
+        {
+            throw new IllegalArgumentException();
+        }
+        long estimate = spliterator.estimateSize();
+        long threshold = estimate == Long.MAX_VALUE
+                ? MIN_SPLIT
+                : Math.max(MIN_SPLIT, estimate / (pool.getParallelism() * 4L));
+        BinaryMinHeap<E> heap = pool.invoke(new SelectTask<>(k, spliterator, threshold));
+        List<E> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty())
+        {
+            result.add(heap.remove());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Collects the k largest elements of one part of the input into a bounded heap.
+     * Large parts are split off and forked in a loop rather than recursively, so that
+     * spliterators that split unevenly, such as those over iterators, cannot build a deep stack.
+     *
+     * @param <E> the type of elements
+     */
+    private static final class SelectTask<E extends Comparable<E>> extends RecursiveTask<BinaryMinHeap<E>>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int _k;
+        private final Spliterator<E> _spliterator;
+        private final long _threshold;
+
+        private SelectTask(int k, Spliterator<E> spliterator, long threshold)
+        {
+            _k = k;
+            _spliterator = spliterator;
+            _threshold = threshold;
+        }
+
+        protected BinaryMinHeap<E> compute()
+        {
+            List<SelectTask<E>> forked = new ArrayList<>();
+            Spliterator<E> prefix;
+            while (_spliterator.estimateSize() > _threshold && (prefix = _spliterator.trySplit()) != null)
+            {
+                SelectTask<E> task = new SelectTask<>(_k, prefix, _threshold);
+                task.fork();
+                forked.add(task);
+            }
+            Bounded<E> bounded = new Bounded<>(_k, _spliterator.getExactSizeIfKnown());
+            _spliterator.forEachRemaining(bounded);
+            for (int i = forked.size() - 1; i >= 0; i--)
+            {
+                BinaryMinHeap<E> other = forked.get(i).join();
+                while (!other.isEmpty())
+                {
+                    bounded.accept(other.remove());
+                }
+            }
+            return bounded._heap;
+        }
+    }
+
+    /**
+     * A bounded min-heap that keeps the k largest elements offered to it. The heap starts no
+     * larger than the part of the input it is given, or than a split's worth when that size
+     * is unknown, and grows from there, so a k far above the input size costs nothing up front.
+     *
+     * @param <E> the type of elements
+     */
+    private static final class Bounded<E extends Comparable<E>> implements Consumer<E>
+    {
+        private final int _k;
+        private final BinaryMinHeap<E> _heap;
+
+        private Bounded(int k, long size)
+        {
+            _k = k;
+            _heap = new BinaryMinHeap<>((int) Math.max(1, Math.min(k, size < 0 ? MIN_SPLIT : size)));
+        }
+
+        public void accept(E element)
+        {
+            if (element == null)
+            {
+                throw new IllegalArgumentException("Cannot add null to the TopK");
+            }
+            if (_heap.size() < _k)
+            {
+                _heap.add(element);
+            }
+            else if (element.compareTo(_heap.get()) > 0)
+            {
+                _heap.replace(element);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public class TopKTest {
+
+    private static List<Integer> expectedLargest(Integer[] input, int k) {
+        List<Integer> sorted = new ArrayList<>(Arrays.asList(input));
+        sorted.sort(Collections.reverseOrder());
+        return sorted.subList(0, Math.min(k, sorted.size()));
+    }
+
+    private static Integer[] randomInput(int count, int bound) {
+        Random random = new Random(42);
+        Integer[] input = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            input[i] = random.nextInt(bound);
+        }
+        return input;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void largest_ZeroK_ShouldThrowIllegalArgumentException() {
+        TopK.largest(0, new Integer[] {1, 2, 3});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void largest_NullElement_ShouldThrowIllegalArgumentException() {
+        TopK.largest(2, new Integer[] {1, null, 3});
+    }
+
+    @Test
+    public void largest_SmallArray_ShouldReturnLargestFirst() {
+        assertEquals(Arrays.asList(9, 7, 5), TopK.largest(3, new Integer[] {5, 1, 9, 3, 7}));
+    }
+
+    @Test
+    public void largest_KLargerThanInput_ShouldReturnEverythingSorted() {
+        assertEquals(Arrays.asList(3, 2, 1), TopK.largest(10, new Integer[] {2, 3, 1}));
+    }
+
+    @Test
+    public void largest_EmptyInput_ShouldReturnEmptyList() {
+        assertTrue(TopK.largest(5, new Integer[0]).isEmpty());
+    }
+
+    @Test
+    public void largest_LargeArrayOnSeveralThreads_ShouldMatchSort() {
+        Integer[] input = randomInput(200_000, 1_000_000);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(expectedLargest(input, 100), TopK.largest(100, input, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void largest_Duplicates_ShouldKeepEachOccurrence() {
+        Integer[] input = randomInput(50_000, 10);
+        assertEquals(expectedLargest(input, 1000), TopK.largest(1000, input));
+    }
+
+    @Test
+    public void largest_Stream_ShouldMatchSort() {
+        Integer[] input = randomInput(100_000, Integer.MAX_VALUE);
+        List<Integer> filtered = new ArrayList<>();
+        for (Integer i : input) {
+            if (i % 3 != 0) {
+                filtered.add(i);
+            }
+        }
+        assertEquals(expectedLargest(filtered.toArray(new Integer[0]), 50),
+                TopK.largest(50, Stream.of(input).filter(i -> i % 3 != 0)));
+    }
+
+    @Test
+    public void largest_UnsizedSpliterator_ShouldMatchSort() {
+        Integer[] input = randomInput(100_000, Integer.MAX_VALUE);
+        java.util.Iterator<Integer> iterator = Arrays.asList(input).iterator();
+        assertEquals(expectedLargest(input, 25),
+                TopK.largest(25, Spliterators.spliteratorUnknownSize(iterator, 0), ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    public void largest_BoxedRange_ShouldReturnTopValues() {
+        Integer[] input = IntStream.range(0, 10_000).boxed().toArray(Integer[]::new);
+        assertEquals(Arrays.asList(9999, 9998, 9997), TopK.largest(3, input));
+    }
+
+    @Test
+    public void largest_HugeKOnSmallInput_ShouldNotPreallocateK() {
+        Integer[] input = randomInput(100, 1000);
+        assertEquals(expectedLargest(input, 100), TopK.largest(Integer.MAX_VALUE - 8, input));
+    }
+
+    @Test
+    public void largest_HugeKOnUnsizedInput_ShouldNotPreallocateK() {
+        Integer[] input = randomInput(100, 1000);
+        java.util.Iterator<Integer> iterator = Arrays.asList(input).iterator();
+        assertEquals(expectedLargest(input, 100), TopK.largest(Integer.MAX_VALUE - 8,
+                Spliterators.spliteratorUnknownSize(iterator, 0), ForkJoinPool.commonPool()));
+    }
+}
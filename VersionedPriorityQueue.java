@@ -0,0 +1,99 @@
+/**
+ * A mutable PriorityQueue backed by a PersistentPriorityQueue, for when readers need
+ * consistent views of a queue that writers keep changing.
+ *
+ * Writers are serialized on this object and each write publishes a new immutable version.
+ * snapshot() returns the current version in O(1) without locking or copying, and the
+ * snapshot stays valid and unchanged however the queue is modified afterwards.
+ *
+ * @param <E> the type of elements in this queue, which must be Comparable
+ */
+public class VersionedPriorityQueue<E extends Comparable<E>> implements PriorityQueue<E>, Iterable<E>
+{
+    private volatile PersistentPriorityQueue<E> _current = PersistentPriorityQueue.empty();
+
+    /**
+     * Adds the specified element to the queue in priority order, in O(log n).
+     *
+     * @param element the element to add to the queue
+     * @throws IllegalArgumentException if the element is null
+     */
+    public synchronized void add(E element)
+    {
+        _current = _current.add(element);
+    }
+
+    /**
+     * Retrieves, without removing, the smallest element of the current version.
+     *
+     * @return the smallest element
+     * @throws java.util.NoSuchElementException if the queue is empty
+     */
+    public E get()
+    {
+        return _current.get();
+    }
+
+    /**
+     * Retrieves and removes the smallest element, in O(log n).
+     *
+     * @return the smallest element
+     * @throws java.util.NoSuchElementException if the queue is empty
+     */
+    public synchronized E remove()
+    {
+        PersistentPriorityQueue<E> current = _current;
+        E element = current.get();
+        _current = current.remove();
+        return element;
+    }
+
+    /**
+     * Clears the queue. Snapshots taken earlier keep their elements.
+     */
+    public synchronized void clear()
+    {
+        _current = PersistentPriorityQueue.empty();
+    }
+
+    /**
+     * Returns the number of elements in the current version.
+     *
+     * @return the number of elements
+     */
+    public int size()
+    {
+        return _current.size();
+    }
+
+    /**
+     * Returns size() == 0
+     * @return returns size() == 0
+     */
+    public boolean isEmpty()
+    {
+        return _current.isEmpty();
+    }
+
+    /**
+     * Returns the current version of the queue in O(1). The snapshot is immutable and is
+     * not affected by later changes to this queue.
+     *
+     * @return an immutable snapshot of the queue
+     */
+    public PersistentPriorityQueue<E> snapshot()
+    {
+        return _current;
+    }
+
+    /**
+     * Creates an iterator over a snapshot of the queue in ascending order.
+     * Unlike BinaryMinHeap's iterator, taking the snapshot copies nothing.
+     *
+     * @return an iterator over the current elements in ascending order
+     */
+    public Iterator<E> iterator()
+    {
+        return _current.iterator();
+    }
+}